@@ -0,0 +1,63 @@
+package com.example.jwtapp.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.jwtapp.jwt.AuthMetrics;
+import com.example.jwtapp.jwt.CompactTokenProfile;
+import com.example.jwtapp.jwt.JwtKeyRing;
+import com.example.jwtapp.jwt.JwtService;
+import com.example.jwtapp.jwt.TokenRevocationService;
+import com.example.jwtapp.jwt.VerifiedTokenCache;
+
+/**
+ * Shared fixtures: same settings as application.properties, variable role count / role name length
+ * so the token size can be swept from ~300 bytes to a few KB.
+ */
+final class BenchTokens {
+
+    static final String SECRET = "change-me-change-me-change-me-change-me!";
+    static final long EXP_MINUTES = 15;
+    static final String ISSUER = "secure-api";
+    static final String AUDIENCE = "secure-app";
+
+    private BenchTokens() {
+    }
+
+    static JwtService jwtService(String algorithm, boolean cacheEnabled) {
+        return jwtService(algorithm, cacheEnabled, false);
+    }
+
+    static JwtService jwtService(String algorithm, boolean cacheEnabled, boolean compact) {
+        return new JwtService(
+                new JwtKeyRing(algorithm, SECRET, EXP_MINUTES, "", "", ""),
+                EXP_MINUTES,
+                ISSUER,
+                AUDIENCE,
+                new VerifiedTokenCache(cacheEnabled, 10_000),
+                TokenRevocationService.empty(),
+                new CompactTokenProfile(compact, new String[] {"USER", "ADMIN"}, 8),
+                AuthMetrics.noop()
+        );
+    }
+
+    static UserDetails user(int roleCount, int roleNameLength) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            StringBuilder name = new StringBuilder("ROLE_R").append(i);
+            while (name.length() < 5 + roleNameLength) {
+                name.append('X');
+            }
+            authorities.add(new SimpleGrantedAuthority(name.toString()));
+        }
+        return User.withUsername("student")
+                .password("ignored")
+                .authorities(authorities)
+                .build();
+    }
+}
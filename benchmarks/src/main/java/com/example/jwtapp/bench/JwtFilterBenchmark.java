@@ -0,0 +1,77 @@
+package com.example.jwtapp.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import com.example.jwtapp.jwt.AuthMetrics;
+import com.example.jwtapp.jwt.JwtAuthenticationFilter;
+import com.example.jwtapp.jwt.JwtService;
+
+import jakarta.servlet.ServletException;
+
+/**
+ * One full pass of {@link JwtAuthenticationFilter} with mock servlet objects:
+ * header parsing, verification, optional user lookup, authorities, SecurityContext.
+ * The mock request/response/chain are created per operation (OncePerRequestFilter marks
+ * the request as filtered), so their allocation is part of the gc.alloc.rate.norm figure.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    @Param({"1", "8", "32"})
+    public int roleCount;
+
+    @Param({"false", "true"})
+    public boolean statelessPrincipal;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = BenchTokens.jwtService("HS256", cacheEnabled);
+        UserDetails user = BenchTokens.user(roleCount, 8);
+        filter = new JwtAuthenticationFilter(jwtService, new InMemoryUserDetailsManager(user), statelessPrincipal,
+                AuthMetrics.noop());
+        authorizationHeader = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
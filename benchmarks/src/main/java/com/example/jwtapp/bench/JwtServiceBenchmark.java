@@ -0,0 +1,92 @@
+package com.example.jwtapp.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.jwtapp.jwt.JwtService;
+import com.example.jwtapp.jwt.VerifiedToken;
+
+/**
+ * Issue / verify cost of {@link JwtService}.
+ * Run with {@code -prof gc} to get bytes allocated per operation (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    @Param({"HS256", "RS256", "ES256"})
+    public String algorithm;
+
+    @Param({"1", "8", "32"})
+    public int roleCount;
+
+    @Param({"4", "32"})
+    public int roleNameLength;
+
+    /**
+     * app.jwt.compact.enabled. Bench roles are not in the registry, so this measures
+     * the header/jti savings and DEFLATE (8+ roles), not the bitmask.
+     */
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private JwtService jwtService;
+    private JwtService cachedJwtService;
+    private UserDetails user;
+    private String token;
+    private String cachedToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchTokens.jwtService(algorithm, false, compact);
+        cachedJwtService = BenchTokens.jwtService(algorithm, true, compact);
+        user = BenchTokens.user(roleCount, roleNameLength);
+        token = jwtService.generateToken(user);
+        // RS/ES servisi generiraju vlastiti par ključeva, pa svaki verificira svoj token
+        cachedToken = cachedJwtService.generateToken(user);
+        cachedJwtService.verify(cachedToken);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    /**
+     * Signature check + claims parse (the old extractAllClaims).
+     */
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public List<String> extractRoles() {
+        return jwtService.extractRoles(token);
+    }
+
+    /**
+     * Same token every time with app.jwt.cache.enabled=true: digest + map hit, no signature check.
+     */
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return cachedJwtService.verify(cachedToken);
+    }
+}
@@ -1,44 +1,176 @@
 package com.example.jwtapp.api;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.example.jwtapp.notes.Note;
+import com.example.jwtapp.notes.NoteEvents;
+import com.example.jwtapp.notes.NotesIndex;
+import com.example.jwtapp.notes.NotesStore;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Tiny "app": a notes list.
  * - Public ping
- * - Protected notes (ROLE_USER)
+ * - Protected notes (ROLE_USER), each user sees their own, one page at a time
  * - Admin secret (ROLE_ADMIN)
  */
 @RestController
 @RequestMapping("/api")
 public class ApiController {
 
-    private final List<String> notes = new CopyOnWriteArrayList<>(List.of(
-            "Prva bilješka: 'Ne vjeruj tokenu koji traje vječno.'",
-            "Druga bilješka: 'Stateless je zen, ali i odgovornost.'"
-    ));
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final NotesStore notes;
+    private final NoteEvents noteEvents;
+    private final NotesIndex notesIndex;
+    private final ObjectMapper objectMapper;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public ApiController(
+            NotesStore notes,
+            NoteEvents noteEvents,
+            NotesIndex notesIndex,
+            ObjectMapper objectMapper,
+            @Value("${app.notes.page.defaultLimit:100}") int defaultLimit,
+            @Value("${app.notes.page.maxLimit:1000}") int maxLimit
+    ) {
+        this.notes = notes;
+        this.noteEvents = noteEvents;
+        this.notesIndex = notesIndex;
+        this.objectMapper = objectMapper;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
 
     @GetMapping("/public/ping")
     public String ping() {
         return "pong";
     }
 
+    /**
+     * One page of the caller's notes as a JSON array, written straight to the response.
+     * If there are more, {@value #NEXT_CURSOR_HEADER} holds the id to pass as {@code after}.
+     * The ETag is the user's notes version plus the page bounds; a matching If-None-Match gets
+     * a 304 before anything is rendered. It also carries the store epoch, so a version from
+     * before a restart (without the journal) never matches different notes, and a hash of the
+     * username: the URL is the same for everyone, so a browser shared by two users must not
+     * revalidate one user's cached page with the other's token. {@code private, no-cache} keeps
+     * the page out of shared caches but lets the client store it and revalidate.
+     */
     @GetMapping("/notes")
     @PreAuthorize("hasRole('USER')")
-    public List<String> getNotes(Authentication auth) {
+    public void getNotes(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "-1") long after,
+            Authentication auth,
+            WebRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        int pageSize = Math.max(1, Math.min(maxLimit, limit == null ? defaultLimit : limit));
         // auth.getName() is the username from the token (or from the security context)
-        return notes.stream().map(n -> auth.getName() + " vidi: " + n).toList();
+        String username = auth.getName();
+        long firstId = NotesStore.firstIdAfter(after);
+
+        // snapshot je O(1); njegova veličina je verzija, pa ETag i sadržaj uvijek odgovaraju
+        List<String> snapshot = notes.snapshot(username);
+        String etag = "\"" + notes.epoch() + "-" + ownerTag(username) + "-" + snapshot.size() + "-" + firstId + "-" + pageSize + "\"";
+        // postavljen prije Spring Securityja - on tada ne dodaje svoj no-store
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (request.checkNotModified(etag)) {
+            return;
+        }
+
+        List<String> page = NotesStore.page(snapshot, after, pageSize + 1);
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore) {
+            page = page.subList(0, pageSize);
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (hasMore) {
+            response.setHeader(NEXT_CURSOR_HEADER, String.valueOf(firstId + pageSize - 1));
+        }
+
+        // prefiks se kopira jednom, svaka bilješka se dopisuje iza njega u isti buffer
+        char[] buffer = (username + " vidi: ").toCharArray();
+        int prefixLength = buffer.length;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            for (String note : page) {
+                int length = prefixLength + note.length();
+                if (length > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+                }
+                note.getChars(0, note.length(), buffer, prefixLength);
+                json.writeString(buffer, 0, length);
+            }
+            json.writeEndArray();
+        }
+    }
+
+    // prvih 8 bajtova SHA-256 - isto za istog korisnika i nakon restarta, ne otkriva ime
+    private static String ownerTag(String username) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(username.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Server-sent events with the caller's new notes ({@code event: note}, {@code id} = note id).
+     * EventSource sends Last-Event-ID on reconnect, and everything after it is sent first.
+     */
+    @GetMapping(value = "/notes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public SseEmitter streamNotes(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            Authentication auth
+    ) {
+        return noteEvents.subscribe(auth.getName(), lastEventId);
+    }
+
+    /**
+     * Full-text search over the caller's notes, best match first.
+     * {@code q}: terms are ANDed, OR separates alternatives, {@code tok*} is a prefix.
+     */
+    @GetMapping("/notes/search")
+    @PreAuthorize("hasRole('USER')")
+    public List<NotesIndex.Hit> searchNotes(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            Authentication auth
+    ) {
+        int topK = Math.max(1, Math.min(maxLimit, limit == null ? defaultLimit : limit));
+        return notesIndex.search(auth.getName(), q, topK);
     }
 
     @PostMapping("/notes")
     @PreAuthorize("hasRole('USER')")
-    public List<String> addNote(@RequestBody String note, Authentication auth) {
-        notes.add("[" + auth.getName() + "] " + note);
-        return notes;
+    public Note addNote(@RequestBody String note, Authentication auth) {
+        return notes.append(auth.getName(), "[" + auth.getName() + "] " + note);
     }
 
     @GetMapping("/admin/secret")
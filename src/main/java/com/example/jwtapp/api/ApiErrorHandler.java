@@ -1,8 +1,15 @@
 package com.example.jwtapp.api;
 
+import com.example.jwtapp.auth.InvalidRefreshTokenException;
+import com.example.jwtapp.auth.LoginBusyException;
 import com.example.jwtapp.deser.InsecureDeserializationException;
+import com.example.jwtapp.notes.StreamsBusyException;
+import com.example.jwtapp.notes.TooManyStreamsException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -29,4 +36,45 @@ public class ApiErrorHandler {
                 "message", ex.getMessage()
         );
     }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public Map<String, Object> handleInvalidRefreshToken(InvalidRefreshTokenException ex) {
+        return Map.of(
+                "error", "invalid_refresh_token",
+                "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(LoginBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleLoginBusy(LoginBusyException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.retryAfterSeconds()))
+                .body(Map.of(
+                        "error", "too_many_logins",
+                        "message", ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(TooManyStreamsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyStreams(TooManyStreamsException ex) {
+        // JSON i kad klijent traži text/event-stream
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of(
+                        "error", "too_many_streams",
+                        "message", ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(StreamsBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleStreamsBusy(StreamsBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of(
+                        "error", "streams_busy",
+                        "message", ex.getMessage()
+                ));
+    }
 }
@@ -0,0 +1,11 @@
+package com.example.jwtapp.api;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record DemoUserBatchRequest(
+        // nekoliko tisuća imena = desetak IN upita; više od toga neka se podijeli na klijentu
+        @NotEmpty @Size(max = 5000) List<String> usernames
+) {}
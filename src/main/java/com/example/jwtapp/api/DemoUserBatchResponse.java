@@ -0,0 +1,8 @@
+package com.example.jwtapp.api;
+
+import java.util.List;
+
+/**
+ * {@code users} follow the order of the requested usernames; {@code missing} lists the ones not found.
+ */
+public record DemoUserBatchResponse(List<DemoUserRow> users, List<String> missing) {}
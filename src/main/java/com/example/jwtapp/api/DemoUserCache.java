@@ -0,0 +1,114 @@
+package com.example.jwtapp.api;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.jwtapp.cache.BoundedCache;
+
+/**
+ * Read-through cache for the safe demo_users lookup (GET /api/sql/safe).
+ * <p>
+ * Concurrent misses for the same username are coalesced: the first caller queries the
+ * database, the others wait for its result, so a hot key costs about one query per TTL.
+ * Empty results are cached too - a hot unknown name is just as expensive.
+ * <p>
+ * demo_users has no writers of its own; the vulnerable endpoint can run arbitrary SQL,
+ * so it invalidates everything after each call. A load that overlaps an invalidation
+ * returns its result but does not cache it: the generation is checked again after the put,
+ * so an invalidation that lands between the check and the put still removes the entry.
+ */
+@Component
+public class DemoUserCache {
+
+    private final DemoUserRepository repository;
+    private final BoundedCache<String, List<DemoUserRow>> cache;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<String, CompletableFuture<List<DemoUserRow>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder coalesced = new LongAdder();
+
+    public DemoUserCache(
+            DemoUserRepository repository,
+            @Value("${app.demo.userCache.maxSize:10000}") int maxSize,
+            @Value("${app.demo.userCache.ttlSeconds:30}") long ttlSeconds
+    ) {
+        this.repository = repository;
+        this.cache = new BoundedCache<>(maxSize);
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public List<DemoUserRow> findByUsername(String username) {
+        List<DemoUserRow> cached = cache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<List<DemoUserRow>> load = new CompletableFuture<>();
+        CompletableFuture<List<DemoUserRow>> running = inFlight.putIfAbsent(username, load);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        try {
+            // prethodni loader je možda upisao vrijednost i maknuo se iz inFlight
+            // između našeg promašaja i putIfAbsent - onda nema potrebe ići u bazu
+            List<DemoUserRow> loaded = cache.peek(username);
+            if (loaded != null) {
+                load.complete(loaded);
+                return loaded;
+            }
+            long startGeneration = generation.get();
+            List<DemoUserRow> rows = List.copyOf(repository.findByUsername(username));
+            if (generation.get() == startGeneration) {
+                cache.put(username, rows, System.currentTimeMillis() + ttlMillis);
+                // invalidateAll između provjere i put-a već je počistio - naš put bi ga nadživio
+                if (generation.get() != startGeneration) {
+                    cache.invalidate(username);
+                }
+            }
+            load.complete(rows);
+            return rows;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(username, load);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public BoundedCache.Stats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Misses that waited for another caller's query instead of running their own.
+     */
+    public long coalescedLoads() {
+        return coalesced.sum();
+    }
+
+    private static List<DemoUserRow> await(CompletableFuture<List<DemoUserRow>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            // isti exception kao da smo sami išli u bazu (npr. DataAccessException -> 400)
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.jwtapp.api;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Parameterized, typed access to demo_users.
+ * The statement is described once (SQL + parameter types) and rows are mapped by column
+ * index straight into {@link DemoUserRow} - no per-row map, no column name lookups.
+ * H2 keeps the parsed statement per connection (QUERY_CACHE_SIZE in the datasource URL).
+ * <p>
+ * Batch lookups go through {@code IN (:usernames)} in chunks of at most {@value #IN_CHUNK}.
+ * Each chunk is padded to a power of two by repeating its last name, so only a handful of
+ * distinct IN lists (8, 16, ... 512) ever reach the statement cache.
+ */
+@Repository
+public class DemoUserRepository {
+
+    static final String COLUMNS = "id, username, full_name, email, role";
+
+    static final RowMapper<DemoUserRow> ROW_MAPPER = (rs, rowNum) -> new DemoUserRow(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getString(3),
+            rs.getString(4),
+            rs.getString(5)
+    );
+
+    private static final PreparedStatementCreatorFactory FIND_BY_USERNAME = new PreparedStatementCreatorFactory(
+            "SELECT " + COLUMNS + " FROM demo_users WHERE username = ?", Types.VARCHAR);
+
+    static final int IN_CHUNK = 512;
+
+    private static final String FIND_BY_USERNAMES = "SELECT " + COLUMNS + " FROM demo_users WHERE username IN (:usernames)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public DemoUserRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    public List<DemoUserRow> findByUsername(String username) {
+        return jdbcTemplate.query(FIND_BY_USERNAME.newPreparedStatementCreator(List.of(username)), ROW_MAPPER);
+    }
+
+    /**
+     * All rows whose username is in {@code usernames}, in no particular order.
+     */
+    public List<DemoUserRow> findByUsernames(Collection<String> usernames) {
+        List<String> names = List.copyOf(usernames);
+        List<DemoUserRow> rows = new ArrayList<>(names.size());
+        for (int from = 0; from < names.size(); from += IN_CHUNK) {
+            List<String> chunk = names.subList(from, Math.min(names.size(), from + IN_CHUNK));
+            rows.addAll(namedJdbcTemplate.query(FIND_BY_USERNAMES, Map.of("usernames", padded(chunk)), ROW_MAPPER));
+        }
+        return rows;
+    }
+
+    // duplikat zadnjeg imena ne mijenja rezultat IN upita
+    private static List<String> padded(List<String> chunk) {
+        int size = Math.max(8, Integer.highestOneBit(chunk.size() - 1) << 1);
+        if (size == chunk.size()) {
+            return chunk;
+        }
+        List<String> padded = new ArrayList<>(size);
+        padded.addAll(chunk);
+        while (padded.size() < size) {
+            padded.add(chunk.get(chunk.size() - 1));
+        }
+        return padded;
+    }
+}
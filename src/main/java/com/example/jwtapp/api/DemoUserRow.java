@@ -0,0 +1,6 @@
+package com.example.jwtapp.api;
+
+/**
+ * One row of demo_users, as returned by the safe lookups.
+ */
+public record DemoUserRow(long id, String username, String fullName, String email, String role) {}
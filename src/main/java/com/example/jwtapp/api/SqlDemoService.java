@@ -1,30 +1,61 @@
 package com.example.jwtapp.api;
 
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class SqlDemoService {
 
     private final JdbcTemplate jdbcTemplate;
-    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final DemoUserRepository demoUsers;
+    private final DemoUserCache demoUserCache;
 
-    public SqlDemoService(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+    public SqlDemoService(JdbcTemplate jdbcTemplate, DemoUserRepository demoUsers, DemoUserCache demoUserCache) {
         this.jdbcTemplate = jdbcTemplate;
-        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.demoUsers = demoUsers;
+        this.demoUserCache = demoUserCache;
     }
 
+    // namjerno ranjivo - ostaje string concat + queryForList
     public List<Map<String, Object>> vulnerableFindByUsername(String username) {
         String sql = "SELECT id, username, full_name, email, role FROM demo_users WHERE username = '" + username + "'";
-        return jdbcTemplate.queryForList(sql);
+        try {
+            return jdbcTemplate.queryForList(sql);
+        } finally {
+            demoUserCache.invalidateAll();
+        }
     }
 
-    public List<Map<String, Object>> safeFindByUsername(String username) {
-        String sql = "SELECT id, username, full_name, email, role FROM demo_users WHERE username = :username";
-        return namedJdbcTemplate.queryForList(sql, Map.of("username", username));
+    public List<DemoUserRow> safeFindByUsername(String username) {
+        return demoUserCache.findByUsername(username);
+    }
+
+    public DemoUserBatchResponse safeFindByUsernames(List<String> usernames) {
+        Set<String> requested = new LinkedHashSet<>(usernames);
+        requested.remove(null);
+        // username u demo_users nije unique - jedno ime može vratiti više redaka
+        Map<String, List<DemoUserRow>> byUsername = new HashMap<>();
+        for (DemoUserRow row : demoUsers.findByUsernames(requested)) {
+            byUsername.computeIfAbsent(row.username(), u -> new ArrayList<>()).add(row);
+        }
+
+        List<DemoUserRow> users = new ArrayList<>(requested.size());
+        List<String> missing = new ArrayList<>();
+        for (String username : requested) {
+            List<DemoUserRow> rows = byUsername.get(username);
+            if (rows == null) {
+                missing.add(username);
+            } else {
+                users.addAll(rows);
+            }
+        }
+        return new DemoUserBatchResponse(users, missing);
     }
 }
@@ -2,35 +2,80 @@ package com.example.jwtapp.api;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import jakarta.validation.Valid;
+
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.example.jwtapp.cache.BoundedCache;
+
 @RestController
 @RequestMapping("/api/sql")
 public class SqlInjectionController {
 
     private final JdbcTemplate jdbcTemplate;
+    private final DemoUserCache demoUsers;
+    private final SqlDemoService sqlDemoService;
 
-    public SqlInjectionController(JdbcTemplate jdbcTemplate) {
+    public SqlInjectionController(JdbcTemplate jdbcTemplate, DemoUserCache demoUsers, SqlDemoService sqlDemoService) {
         this.jdbcTemplate = jdbcTemplate;
+        this.demoUsers = demoUsers;
+        this.sqlDemoService = sqlDemoService;
     }
 
     @GetMapping("/vuln")
     @PreAuthorize("hasRole('USER')")
     public List<Map<String, Object>> vulnerableLookup(@RequestParam String username) {
         String sql = "SELECT id, username, role FROM demo_users WHERE username = '" + username + "'";
-        return jdbcTemplate.queryForList(sql);
+        try {
+            return jdbcTemplate.queryForList(sql);
+        } finally {
+            // injekcija je mogla mijenjati retke - cache sigurnog lookupa više ne vrijedi
+            demoUsers.invalidateAll();
+        }
     }
 
     @GetMapping("/safe")
     @PreAuthorize("hasRole('USER')")
-    public List<Map<String, Object>> safeLookup(@RequestParam String username) {
-        String sql = "SELECT id, username, role FROM demo_users WHERE username = ?";
-        return jdbcTemplate.queryForList(sql, username);
+    public List<DemoUserRow> safeLookup(@RequestParam String username) {
+        return demoUsers.findByUsername(username);
+    }
+
+    // N imena u jednom zahtjevu: nekoliko IN upita umjesto N poziva /safe
+    @PostMapping("/safe/batch")
+    @PreAuthorize("hasRole('USER')")
+    public DemoUserBatchResponse safeBatchLookup(@Valid @RequestBody DemoUserBatchRequest request) {
+        return sqlDemoService.safeFindByUsernames(request.usernames());
+    }
+
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> cacheStats() {
+        BoundedCache.Stats stats = demoUsers.stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("hits", stats.hits());
+        body.put("misses", stats.misses());
+        body.put("coalesced", demoUsers.coalescedLoads());
+        body.put("evictions", stats.evictions());
+        body.put("size", stats.size());
+        body.put("maxSize", stats.maxSize());
+        body.put("hitRatio", stats.hitRatio());
+        return body;
+    }
+
+    @DeleteMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> invalidateCache() {
+        demoUsers.invalidateAll();
+        return Map.of("invalidated", "all");
     }
 }
@@ -1,6 +1,7 @@
 package com.example.jwtapp.auth;
 
 import com.example.jwtapp.jwt.JwtService;
+import com.example.jwtapp.jwt.TokenIntrospectionService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
@@ -8,6 +9,8 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -16,25 +19,83 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final UserDetailsService userDetailsService;
+    private final TokenIntrospectionService introspectionService;
+    private final PasswordCheckExecutor passwordCheckExecutor;
 
-    public AuthController(AuthenticationManager authenticationManager, JwtService jwtService) {
+    public AuthController(
+            AuthenticationManager authenticationManager,
+            JwtService jwtService,
+            RefreshTokenService refreshTokenService,
+            UserDetailsService userDetailsService,
+            TokenIntrospectionService introspectionService,
+            PasswordCheckExecutor passwordCheckExecutor
+    ) {
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.userDetailsService = userDetailsService;
+        this.introspectionService = introspectionService;
+        this.passwordCheckExecutor = passwordCheckExecutor;
     }
 
     @PostMapping("/login")
     public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
 
-        Authentication authentication = authenticationManager.authenticate(
+        // BCrypt ide na ograničeni pool, ne na Tomcat thread; pun red -> 429 (LoginBusyException).
+        // Samu provjeru lozinke (bez lookupa korisnika) mjeri CachingDaoAuthenticationProvider.
+        Authentication authentication = passwordCheckExecutor.run(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.username(), request.password())
-        );
+        ));
 
         UserDetails user = (UserDetails) authentication.getPrincipal();
         String token = jwtService.generateToken(user);
+        String refreshToken = refreshTokenService.issue(user.getUsername());
 
         // Return token in body + Authorization header (handy for demos).
         return ResponseEntity.ok()
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                .body(new LoginResponse(token));
+                .body(new LoginResponse(token, refreshToken));
+    }
+
+    /**
+     * Mints a new access token from a refresh token - no password, no BCrypt.
+     * The refresh token is rotated: the returned one replaces the presented one.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.refreshToken());
+
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(rotation.username());
+        } catch (UsernameNotFoundException ex) {
+            refreshTokenService.revoke(rotation.refreshToken());
+            throw new InvalidRefreshTokenException("Korisnik više ne postoji.");
+        }
+
+        // Zaključan ili onemogućen račun ne smije dobiti novi access token.
+        if (!user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired()) {
+            refreshTokenService.revoke(rotation.refreshToken());
+            throw new InvalidRefreshTokenException("Račun je zaključan ili onemogućen.");
+        }
+
+        String token = jwtService.generateToken(user);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .body(new LoginResponse(token, rotation.refreshToken()));
+    }
+
+    /**
+     * Batch verification for gateways: one result per token, in request order. ROLE_ADMIN only
+     * (see SecurityConfig) - anonymous callers must not be able to test stolen tokens here.
+     * Always 200 - an invalid token is a normal answer here ({"active": false}), not an error.
+     */
+    @PostMapping("/introspect")
+    public IntrospectResponse introspect(@Valid @RequestBody IntrospectRequest request) {
+        return new IntrospectResponse(introspectionService.introspect(request.tokens()));
     }
 }
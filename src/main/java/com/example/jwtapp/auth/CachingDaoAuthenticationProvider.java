@@ -0,0 +1,55 @@
+package com.example.jwtapp.auth;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.jwtapp.jwt.AuthMetrics;
+
+/**
+ * DaoAuthenticationProvider that skips the BCrypt check when the same password was verified
+ * against the same stored hash moments ago (see {@link CredentialVerificationCache}).
+ * Everything else - user lookup, locked/disabled checks, rehash on login - is unchanged.
+ * <p>
+ * The password check alone (not the user lookup) is timed as auth.login.bcrypt, with
+ * {@code cached=true} for a cache hit so hits don't pass for very fast BCrypt.
+ */
+public class CachingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final CredentialVerificationCache credentialCache;
+    private final AuthMetrics metrics;
+
+    public CachingDaoAuthenticationProvider(PasswordEncoder passwordEncoder, CredentialVerificationCache credentialCache,
+                                            AuthMetrics metrics) {
+        super(passwordEncoder);
+        this.credentialCache = credentialCache;
+        this.metrics = metrics;
+    }
+
+    public CachingDaoAuthenticationProvider(PasswordEncoder passwordEncoder, CredentialVerificationCache credentialCache) {
+        this(passwordEncoder, credentialCache, AuthMetrics.noop());
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        long start = System.nanoTime();
+        Object credentials = authentication.getCredentials();
+        if (credentials != null
+                && credentialCache.isVerified(userDetails.getUsername(), credentials.toString(), userDetails.getPassword())) {
+            metrics.login(start, true, true);
+            return;
+        }
+        try {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+        } catch (AuthenticationException ex) {
+            metrics.login(start, false, false);
+            throw ex;
+        }
+        metrics.login(start, true, false);
+        // stigli smo ovdje samo ako je lozinka točna
+        credentialCache.remember(userDetails.getUsername(), credentials.toString(), userDetails.getPassword());
+    }
+}
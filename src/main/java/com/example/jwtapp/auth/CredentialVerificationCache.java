@@ -0,0 +1,107 @@
+package com.example.jwtapp.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.jwtapp.cache.BoundedCache;
+
+/**
+ * Opt-in memory of recent successful password checks (app.security.credentialCache.enabled).
+ * <p>
+ * One entry per username: HMAC-SHA256 of the password that passed, plus the stored hash it
+ * was checked against. A hit needs both to match, so a changed or rehashed password is a miss
+ * by construction; lock/disable is checked on the loaded user before we get here, and the
+ * user store additionally invalidates on every change.
+ * <p>
+ * The plaintext is never stored. The HMAC key is random per process, so a heap dump
+ * does not give anything that can be brute-forced offline faster than the BCrypt hashes.
+ */
+@Component
+public class CredentialVerificationCache {
+
+    private record Verified(byte[] passwordMac, String encodedPassword) {}
+
+    // null kad je cache isključen
+    private final BoundedCache<String, Verified> cache;
+    private final long ttlMillis;
+    private final ThreadLocal<Mac> hmac;
+
+    @Autowired
+    public CredentialVerificationCache(
+            @Value("${app.security.credentialCache.enabled:false}") boolean enabled,
+            @Value("${app.security.credentialCache.maxSize:10000}") int maxSize,
+            @Value("${app.security.credentialCache.ttlSeconds:60}") long ttlSeconds
+    ) {
+        this.cache = enabled ? new BoundedCache<>(maxSize) : null;
+        this.ttlMillis = ttlSeconds * 1000;
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec secret = new SecretKeySpec(key, "HmacSHA256");
+        this.hmac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(secret);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    public static CredentialVerificationCache disabled() {
+        return new CredentialVerificationCache(false, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * @return true when this exact password was verified against this exact stored hash within the TTL
+     */
+    public boolean isVerified(String username, String password, String encodedPassword) {
+        if (cache == null) {
+            return false;
+        }
+        Verified verified = cache.get(username);
+        return verified != null
+                && verified.encodedPassword().equals(encodedPassword)
+                && MessageDigest.isEqual(verified.passwordMac(), mac(password));
+    }
+
+    public void remember(String username, String password, String encodedPassword) {
+        if (cache != null) {
+            cache.put(username, new Verified(mac(password), encodedPassword), System.currentTimeMillis() + ttlMillis);
+        }
+    }
+
+    public void invalidate(String username) {
+        if (cache != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public BoundedCache.Stats stats() {
+        return cache == null ? new BoundedCache.Stats(0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    private byte[] mac(String password) {
+        return hmac.get().doFinal(password.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.jwtapp.auth;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record IntrospectRequest(
+        // gornja granica da jedan zahtjev ne može zauzeti sve jezgre na dulje vrijeme
+        @NotEmpty @Size(max = 1000) List<String> tokens
+) {}
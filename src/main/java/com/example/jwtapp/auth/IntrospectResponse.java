@@ -0,0 +1,7 @@
+package com.example.jwtapp.auth;
+
+import com.example.jwtapp.jwt.TokenIntrospection;
+
+import java.util.List;
+
+public record IntrospectResponse(List<TokenIntrospection> results) {}
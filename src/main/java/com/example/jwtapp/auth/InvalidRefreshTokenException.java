@@ -0,0 +1,7 @@
+package com.example.jwtapp.auth;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.jwtapp.auth;
+
+public class LoginBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginBusyException(long retryAfterSeconds) {
+        super("Previše istovremenih prijava - pokušaj ponovno za " + retryAfterSeconds + " s.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,3 +1,3 @@
 package com.example.jwtapp.auth;
 
-public record LoginResponse(String token) {}
+public record LoginResponse(String token, String refreshToken) {}
@@ -0,0 +1,110 @@
+package com.example.jwtapp.auth;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.jwtapp.jwt.AuthMetrics;
+
+/**
+ * Bounded pool for password checks (BCrypt on /api/auth/login).
+ * <p>
+ * BCrypt is pure CPU, so more threads than cores only adds contention. The pool has one
+ * thread per core and a bounded queue; when both are full the login is refused right away
+ * (429) instead of piling up behind the ones already waiting. A login storm therefore costs
+ * at most {@code threads} cores, and at most {@code threads + queueCapacity} request threads
+ * are parked waiting for a result - the rest of Tomcat's pool stays free for /api/notes.
+ */
+@Component
+public class PasswordCheckExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor pool;
+    private final AuthMetrics metrics;
+    private final long retryAfterSeconds;
+
+    @Autowired
+    public PasswordCheckExecutor(
+            @Value("${app.security.login.threads:0}") int threads,
+            @Value("${app.security.login.queueCapacity:64}") int queueCapacity,
+            @Value("${app.security.login.retryAfterSeconds:1}") long retryAfterSeconds,
+            AuthMetrics metrics
+    ) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = new ThreadPoolExecutor(
+                size, size,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedDaemonThreads(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.metrics = metrics;
+        this.retryAfterSeconds = retryAfterSeconds;
+        metrics.bindLoginPool(pool);
+    }
+
+    /**
+     * Runs {@code check} on the pool and waits for it. Exceptions thrown by the check
+     * (e.g. BadCredentialsException) reach the caller unchanged.
+     *
+     * @throws LoginBusyException when the queue is full
+     */
+    public <T> T run(Supplier<T> check) {
+        long submittedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = pool.submit(() -> {
+                metrics.loginQueueWait(submittedAt);
+                return check.get();
+            });
+        } catch (RejectedExecutionException ex) {
+            metrics.loginRejected();
+            throw new LoginBusyException(retryAfterSeconds);
+        }
+
+        try {
+            return result.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new LoginBusyException(retryAfterSeconds);
+        }
+    }
+
+    public int queueDepth() {
+        return pool.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private static ThreadFactory namedDaemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-check-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.jwtapp.auth;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshRequest(
+        @NotBlank String refreshToken
+) {}
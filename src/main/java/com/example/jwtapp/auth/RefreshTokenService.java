@@ -0,0 +1,146 @@
+package com.example.jwtapp.auth;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rotating refresh tokens.
+ * <p>
+ * A token looks like {@code <familyId>.<secret>}. Every login starts a new family; every
+ * refresh replaces the family's secret, so only the newest token of a family is usable.
+ * The server keeps one small entry per family (username, SHA-256 of the current secret,
+ * absolute expiry) - never the token itself.
+ * <p>
+ * Reuse detection: presenting an older secret of a live family means the token was copied,
+ * so the whole family is revoked and both holders have to log in again.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final long SWEEP_INTERVAL_MILLIS = 60_000;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<Long, Family> families = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong();
+    private final long refreshExpMillis;
+
+    public record Rotation(String username, String refreshToken) {}
+
+    private record Family(String username, byte[] secretDigest, long expiresAtMillis) {}
+
+    public RefreshTokenService(@Value("${app.jwt.refreshExpMinutes:10080}") long refreshExpMinutes) {
+        this.refreshExpMillis = refreshExpMinutes * 60_000;
+    }
+
+    /**
+     * Starts a new family for a freshly authenticated user.
+     */
+    public String issue(String username) {
+        sweepExpired();
+
+        long familyId;
+        byte[] secret = newSecret();
+        Family family = new Family(username, sha256(secret), System.currentTimeMillis() + refreshExpMillis);
+        do {
+            familyId = random.nextLong();
+        } while (families.putIfAbsent(familyId, family) != null);
+
+        return format(familyId, secret);
+    }
+
+    /**
+     * Consumes the presented token and returns its successor.
+     *
+     * @throws InvalidRefreshTokenException unknown, expired, revoked or reused token
+     */
+    public Rotation rotate(String refreshToken) {
+        int dot = refreshToken.indexOf('.');
+        if (dot <= 0) {
+            throw new InvalidRefreshTokenException("Refresh token nije ispravan.");
+        }
+
+        long familyId;
+        byte[] presented;
+        try {
+            familyId = Long.parseUnsignedLong(refreshToken.substring(0, dot), 16);
+            presented = Base64.getUrlDecoder().decode(refreshToken.substring(dot + 1));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRefreshTokenException("Refresh token nije ispravan.");
+        }
+
+        byte[] presentedDigest = sha256(presented);
+        byte[] next = newSecret();
+        long now = System.currentTimeMillis();
+        String[] outcome = new String[1];
+
+        // compute() drži lock na obitelji - dva paralelna refresha istim tokenom ne mogu oba proći.
+        families.computeIfPresent(familyId, (id, family) -> {
+            if (family.expiresAtMillis() <= now) {
+                return null;
+            }
+            if (!MessageDigest.isEqual(family.secretDigest(), presentedDigest)) {
+                // Stari (već rotirani) token -> netko ga je kopirao. Gasimo cijelu obitelj.
+                return null;
+            }
+            outcome[0] = family.username();
+            return new Family(family.username(), sha256(next), family.expiresAtMillis());
+        });
+
+        if (outcome[0] == null) {
+            throw new InvalidRefreshTokenException("Refresh token je istekao, opozvan ili već iskorišten.");
+        }
+        return new Rotation(outcome[0], format(familyId, next));
+    }
+
+    /**
+     * Revokes the family the token belongs to (e.g. the account got locked).
+     */
+    public void revoke(String refreshToken) {
+        int dot = refreshToken.indexOf('.');
+        if (dot <= 0) {
+            return;
+        }
+        try {
+            families.remove(Long.parseUnsignedLong(refreshToken.substring(0, dot), 16));
+        } catch (NumberFormatException ignored) {
+            // nepoznat format - nema se što opozvati
+        }
+    }
+
+    private void sweepExpired() {
+        long now = System.currentTimeMillis();
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_MILLIS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        families.values().removeIf(family -> family.expiresAtMillis() <= now);
+    }
+
+    private byte[] newSecret() {
+        byte[] secret = new byte[32];
+        random.nextBytes(secret);
+        return secret;
+    }
+
+    private static String format(long familyId, byte[] secret) {
+        return HexFormat.of().toHexDigits(familyId)
+                + "."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.jwtapp.config;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Picks the BCrypt cost for the hardware we are running on.
+ * <p>
+ * Each cost step doubles the work, so one measurement at the floor cost is enough to
+ * predict the rest: we take the highest cost whose predicted time still fits the target,
+ * but never go below the floor (a slow node gets a slower login, not a weaker hash).
+ */
+public final class BCryptCalibration {
+
+    private static final int MAX_STRENGTH = 31;
+    private static final int SAMPLES = 3;
+    private static final String ENCODING_ID = "bcrypt";
+
+    private BCryptCalibration() {
+    }
+
+    /**
+     * @param targetMillis desired time for one hash; 0 or less = no calibration, use {@code minStrength}
+     * @param minStrength  lowest cost we accept (4..31)
+     */
+    public static int strengthFor(long targetMillis, int minStrength) {
+        if (targetMillis <= 0) {
+            return minStrength;
+        }
+        long nanos = measure(minStrength);
+        long targetNanos = targetMillis * 1_000_000;
+
+        int strength = minStrength;
+        while (strength < MAX_STRENGTH && nanos * 2 <= targetNanos) {
+            nanos *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    /**
+     * New hashes are written as {@code {bcrypt}$2a$<strength>$...}. Older ones - a lower cost,
+     * or plain {@code $2a$...} without the id prefix - still match, and report
+     * {@code upgradeEncoding() == true}, so DaoAuthenticationProvider rehashes them on the
+     * next successful login (when the user store is a UserDetailsPasswordService).
+     */
+    public static PasswordEncoder encoder(int strength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(ENCODING_ID, Map.of(ENCODING_ID, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
+    }
+
+    // medijan od nekoliko mjerenja; prvo (hladno) mjerenje ne broji se
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration");
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -1,19 +1,23 @@
 package com.example.jwtapp.config;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
+import jakarta.servlet.DispatcherType;
 
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import com.example.jwtapp.auth.CachingDaoAuthenticationProvider;
+import com.example.jwtapp.auth.CredentialVerificationCache;
+import com.example.jwtapp.jwt.AuthMetrics;
 import com.example.jwtapp.jwt.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.*;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -25,29 +29,36 @@ import static org.springframework.security.config.http.SessionCreationPolicy.STA
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    /**
+     * BCrypt with a cost calibrated at startup to app.security.bcrypt.targetMillis
+     * (never below app.security.bcrypt.minStrength). See {@link BCryptCalibration}.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.bcrypt.targetMillis:50}") long targetMillis,
+            @Value("${app.security.bcrypt.minStrength:10}") int minStrength
+    ) {
+        return BCryptCalibration.encoder(BCryptCalibration.strengthFor(targetMillis, minStrength));
     }
 
     /**
-     * Simplest possible user store for a demo:
-     * - student / pass123  -> ROLE_USER
-     * - admin   / admin123 -> ROLE_ADMIN + ROLE_USER
+     * Explicit provider so a successful login can rehash a password stored with an older
+     * cost: the user store is also the UserDetailsPasswordService that saves the new hash.
+     * With app.security.credentialCache.enabled a repeated login skips BCrypt.
      */
     @Bean
-    public UserDetailsService userDetailsService(PasswordEncoder encoder) {
-        UserDetails student = User.withUsername("student")
-                .password(encoder.encode("pass123"))
-                .roles("USER")
-                .build();
-
-        UserDetails admin = User.withUsername("admin")
-                .password(encoder.encode("admin123"))
-                .roles("ADMIN", "USER")
-                .build();
-
-        return new InMemoryUserDetailsManager(student, admin);
+    public DaoAuthenticationProvider authenticationProvider(
+            UserDetailsService userDetailsService,
+            PasswordEncoder encoder,
+            CredentialVerificationCache credentialCache,
+            AuthMetrics metrics
+    ) {
+        DaoAuthenticationProvider provider = new CachingDaoAuthenticationProvider(encoder, credentialCache, metrics);
+        provider.setUserDetailsService(userDetailsService);
+        if (userDetailsService instanceof UserDetailsPasswordService passwordService) {
+            provider.setUserDetailsPasswordService(passwordService);
+        }
+        return provider;
     }
 
     @Bean
@@ -71,9 +82,19 @@ public class SecurityConfig {
                                         .requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll()
                                         .requestMatchers("/", "/index.html", "/favicon.ico").permitAll()
 
+                                        // SSE (/api/notes/stream) se završava async dispatchom bez JWT-a;
+                                        // sam zahtjev je već autoriziran kad je stream otvoren
+                                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                                         // API
                         .requestMatchers("/api/public/**").permitAll()
+                        // introspekcija otkriva claimove tuđih tokena - samo za prijavljenog ADMIN-a (RFC 7662 §4)
+                        .requestMatchers(HttpMethod.POST, "/api/auth/introspect").hasRole("ADMIN")
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        // metrike otkrivaju razloge odbijanja tokena i opterećenje logina - scraper šalje admin JWT
+                        .requestMatchers(HttpMethod.GET, "/actuator/prometheus").hasRole("ADMIN")
                         .requestMatchers("/api/deser/**").hasRole("USER")
                         .requestMatchers("/api/tests/**").hasRole("USER")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
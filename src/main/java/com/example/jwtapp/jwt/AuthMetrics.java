@@ -0,0 +1,174 @@
+package com.example.jwtapp.jwt;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Timers and failure counters for the authentication pipeline, scraped at /actuator/prometheus.
+ * <ul>
+ *   <li>{@code auth.jwt.phase{phase=parse|signature|user_lookup|authorities}} - where a request's auth time goes</li>
+ *   <li>{@code auth.jwt.failures{cause=...}} - why a bearer token did not authenticate</li>
+ *   <li>{@code auth.login.bcrypt{outcome=success|failure,cached=true|false}} - password check in
+ *       /api/auth/login, without the user lookup; {@code cached=true} is a credential-cache hit, no BCrypt</li>
+ *   <li>{@code auth.login.queue.wait}, {@code auth.login.queue.depth}, {@code auth.login.active},
+ *       {@code auth.login.rejected} - the bounded password-check pool in front of BCrypt</li>
+ * </ul>
+ * All meters are registered up front, so a cause that never happened shows up as 0
+ * instead of being missing, and the hot path is a plain field/map read.
+ */
+@Component
+public class AuthMetrics {
+
+    public enum Phase {
+        PARSE("parse"),
+        SIGNATURE("signature"),
+        USER_LOOKUP("user_lookup"),
+        AUTHORITIES("authorities");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final String EMPTY_ROLES = "empty_roles";
+    private static final String USER_NOT_FOUND = "user_not_found";
+    private static final String SUBJECT_MISMATCH = "subject_mismatch";
+
+    private final EnumMap<Phase, Timer> phases = new EnumMap<>(Phase.class);
+    private final Map<String, Counter> failures = new HashMap<>();
+    private final Timer loginSuccess;
+    private final Timer loginFailure;
+    private final Timer loginCached;
+    private final Timer loginQueueWait;
+    private final Counter loginRejected;
+    private final MeterRegistry registry;
+
+    /**
+     * Without actuator on the classpath there is no registry bean - meters then go nowhere.
+     */
+    @Autowired
+    public AuthMetrics(ObjectProvider<MeterRegistry> registry) {
+        this(registry.getIfAvailable(CompositeMeterRegistry::new));
+    }
+
+    public AuthMetrics(MeterRegistry registry) {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, Timer.builder("auth.jwt.phase")
+                    .description("Time spent in one phase of bearer token authentication")
+                    .tag("phase", phase.tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (TokenFailure failure : TokenFailure.values()) {
+            failures.put(failure.code(), failureCounter(registry, failure.code()));
+        }
+        for (String cause : new String[] {EMPTY_ROLES, USER_NOT_FOUND, SUBJECT_MISMATCH}) {
+            failures.put(cause, failureCounter(registry, cause));
+        }
+        this.loginSuccess = loginTimer(registry, "success", false);
+        this.loginFailure = loginTimer(registry, "failure", false);
+        // hit u cacheu je uvijek uspjeh - promašaj ide na BCrypt
+        this.loginCached = loginTimer(registry, "success", true);
+        this.loginQueueWait = Timer.builder("auth.login.queue.wait")
+                .description("Time a login waited for a free password-check thread")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.loginRejected = Counter.builder("auth.login.rejected")
+                .description("Logins refused with 429 because the password-check queue was full")
+                .register(registry);
+        this.registry = registry;
+    }
+
+    /**
+     * Meters that record nothing (unit tests, benchmarks).
+     */
+    public static AuthMetrics noop() {
+        return new AuthMetrics(new CompositeMeterRegistry());
+    }
+
+    public void record(Phase phase, long startNanos) {
+        phases.get(phase).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * jjwt decodes and verifies in one call; {@code keyLookupNanos} is when it asked for the key,
+     * i.e. header and payload were already decoded. 0 = it never got that far (malformed token).
+     */
+    public void recordVerify(long startNanos, long keyLookupNanos, long endNanos) {
+        if (keyLookupNanos == 0) {
+            phases.get(Phase.PARSE).record(endNanos - startNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        phases.get(Phase.PARSE).record(keyLookupNanos - startNanos, TimeUnit.NANOSECONDS);
+        phases.get(Phase.SIGNATURE).record(endNanos - keyLookupNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void failure(TokenFailure failure) {
+        failures.get(failure.code()).increment();
+    }
+
+    public void emptyRoles() {
+        failures.get(EMPTY_ROLES).increment();
+    }
+
+    public void userNotFound() {
+        failures.get(USER_NOT_FOUND).increment();
+    }
+
+    public void subjectMismatch() {
+        failures.get(SUBJECT_MISMATCH).increment();
+    }
+
+    public void login(long startNanos, boolean success, boolean cached) {
+        Timer timer = cached ? loginCached : success ? loginSuccess : loginFailure;
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void loginQueueWait(long submittedNanos) {
+        loginQueueWait.record(System.nanoTime() - submittedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void loginRejected() {
+        loginRejected.increment();
+    }
+
+    public void bindLoginPool(ThreadPoolExecutor pool) {
+        Gauge.builder("auth.login.queue.depth", pool, p -> p.getQueue().size())
+                .description("Logins waiting for a password-check thread")
+                .register(registry);
+        Gauge.builder("auth.login.active", pool, ThreadPoolExecutor::getActiveCount)
+                .description("Password checks running right now")
+                .register(registry);
+    }
+
+    private static Counter failureCounter(MeterRegistry registry, String cause) {
+        return Counter.builder("auth.jwt.failures")
+                .description("Bearer tokens that did not authenticate, by cause")
+                .tag("cause", cause)
+                .register(registry);
+    }
+
+    private static Timer loginTimer(MeterRegistry registry, String outcome, boolean cached) {
+        return Timer.builder("auth.login.bcrypt")
+                .description("Password check on login: BCrypt, or a credential-cache hit when cached=true")
+                .tag("outcome", outcome)
+                .tag("cached", String.valueOf(cached))
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
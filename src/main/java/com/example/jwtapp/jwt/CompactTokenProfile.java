@@ -0,0 +1,135 @@
+package com.example.jwtapp.jwt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opt-in compact token format (app.jwt.compact.enabled).
+ * <p>
+ * Known roles are written as one integer claim {@code rlm}: bit i set = i-th role of
+ * app.jwt.compact.roles. Roles outside the registry still go to the {@code rol} array, and when
+ * there are many of them the payload is DEFLATE-compressed. The header loses {@code typ} and,
+ * for HS256 (single key), also {@code kid}.
+ * <p>
+ * Decoding does not depend on the enabled flag: both formats are always accepted, so the
+ * profile can be switched on or off while old tokens are still in circulation.
+ * The registry is append-only - reordering or removing a role changes what old masks mean.
+ */
+@Component
+public class CompactTokenProfile {
+
+    public static final String MASK_CLAIM = "rlm";
+
+    private static final int MAX_CACHED_MASKS = 1024;
+
+    public record EncodedRoles(long mask, List<String> unregistered) {}
+
+    private final boolean enabled;
+    private final List<String> registry;
+    private final Map<String, Integer> bitByRole;
+    private final int compressRoles;
+    private final ConcurrentHashMap<Long, List<String>> rolesByMask = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CompactTokenProfile(
+            @Value("${app.jwt.compact.enabled:false}") boolean enabled,
+            @Value("${app.jwt.compact.roles:USER,ADMIN}") String[] roles,
+            @Value("${app.jwt.compact.compressRoles:8}") int compressRoles
+    ) {
+        if (roles.length > 63) {
+            throw new IllegalArgumentException("app.jwt.compact.roles supports at most 63 roles, got " + roles.length);
+        }
+        Map<String, Integer> bits = new HashMap<>();
+        List<String> names = new ArrayList<>(roles.length);
+        for (String raw : roles) {
+            String role = raw.trim();
+            if (role.isEmpty() || bits.putIfAbsent(role, names.size()) != null) {
+                throw new IllegalArgumentException("app.jwt.compact.roles has an empty or duplicate role: '" + raw + "'");
+            }
+            names.add(role);
+        }
+        this.enabled = enabled;
+        this.registry = List.copyOf(names);
+        this.bitByRole = Map.copyOf(bits);
+        this.compressRoles = compressRoles;
+    }
+
+    public static CompactTokenProfile disabled() {
+        return new CompactTokenProfile(false, new String[] {"USER", "ADMIN"}, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public EncodedRoles encode(List<String> roles) {
+        long mask = 0;
+        List<String> unregistered = new ArrayList<>();
+        for (String role : roles) {
+            Integer bit = bitByRole.get(role);
+            if (bit != null) {
+                mask |= 1L << bit;
+            } else {
+                unregistered.add(role);
+            }
+        }
+        return new EncodedRoles(mask, unregistered);
+    }
+
+    /**
+     * 0 = never compress. DEFLATE only pays off once the payload is a few hundred bytes;
+     * for a typical USER/ADMIN token it would make the token longer.
+     */
+    public boolean shouldCompress(EncodedRoles roles) {
+        return compressRoles > 0 && roles.unregistered().size() >= compressRoles;
+    }
+
+    /**
+     * @param rawMask the {@code rlm} claim as parsed (Integer or Long), may be null
+     * @param listed  roles from the {@code rol} claim
+     * @return registry roles in registry order, followed by the listed ones
+     */
+    public List<String> decode(Object rawMask, List<String> listed) {
+        if (!(rawMask instanceof Number number)) {
+            return listed;
+        }
+        List<String> masked = rolesFor(number.longValue());
+        if (listed.isEmpty()) {
+            return masked;
+        }
+        List<String> all = new ArrayList<>(masked.size() + listed.size());
+        all.addAll(masked);
+        all.addAll(listed);
+        return all;
+    }
+
+    // ista maska -> ista immutable lista, bez alokacije po zahtjevu
+    private List<String> rolesFor(long mask) {
+        List<String> cached = rolesByMask.get(mask);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> built = new ArrayList<>(Long.bitCount(mask));
+        long remaining = mask;
+        while (remaining != 0) {
+            int bit = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            // bitovi izvan registra (npr. token s drugog noda s duljim registrom) se ignoriraju
+            if (bit < registry.size()) {
+                built.add(registry.get(bit));
+            }
+        }
+        List<String> roles = List.copyOf(built);
+        if (rolesByMask.size() < MAX_CACHED_MASKS) {
+            rolesByMask.putIfAbsent(mask, roles);
+        }
+        return roles;
+    }
+}
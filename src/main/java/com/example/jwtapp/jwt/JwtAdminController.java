@@ -0,0 +1,127 @@
+package com.example.jwtapp.jwt;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.Map;
+
+import com.example.jwtapp.cache.BoundedCache;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Operational endpoints for the JWT subsystem (ROLE_ADMIN only).
+ */
+@RestController
+@RequestMapping("/api/admin/jwt")
+public class JwtAdminController {
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtKeyRing keyRing;
+    private final JwtService jwtService;
+    private final TokenRevocationService revocations;
+
+    public JwtAdminController(
+            VerifiedTokenCache verifiedTokenCache,
+            JwtKeyRing keyRing,
+            JwtService jwtService,
+            TokenRevocationService revocations
+    ) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.keyRing = keyRing;
+        this.jwtService = jwtService;
+        this.revocations = revocations;
+    }
+
+    /**
+     * Either the whole token, or its jti + expiresAt (e.g. taken from logs).
+     */
+    public record RevokeRequest(String token, String jti, Instant expiresAt) {}
+
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> cacheStats() {
+        BoundedCache.Stats stats = verifiedTokenCache.stats();
+        return Map.of(
+                "enabled", verifiedTokenCache.isEnabled(),
+                "hits", stats.hits(),
+                "misses", stats.misses(),
+                "evictions", stats.evictions(),
+                "size", stats.size(),
+                "maxSize", stats.maxSize(),
+                "hitRatio", stats.hitRatio()
+        );
+    }
+
+    /**
+     * New tokens get signed with a fresh key; tokens signed with the old one stay valid until they expire.
+     * Only for a single node with a generated key pair - no other node would know the new key.
+     * Configured keys (app.jwt.keys.*) rotate at deploy time, see {@link JwtKeyRing}.
+     */
+    @PostMapping("/keys/rotate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rotateKeys() {
+        if (keyRing.algorithm() == SignatureAlgorithm.HS256) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "rotation_not_supported",
+                    "message", "HS256 koristi zajednički app.jwt.secret - rotacija ide kroz konfiguraciju."
+            ));
+        }
+        if (!keyRing.canRotate()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "rotation_not_supported",
+                    "message", "Ključevi su u app.jwt.keys.* i dijele ih svi čvorovi - rotacija ide kroz deploy."
+            ));
+        }
+        String kid = keyRing.rotate();
+        return ResponseEntity.ok(Map.of(
+                "kid", kid,
+                "algorithm", keyRing.algorithm().getValue()
+        ));
+    }
+
+    @PostMapping("/revoke")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> revoke(@RequestBody RevokeRequest request) {
+        String jti = request.jti();
+        Instant expiresAt = request.expiresAt();
+
+        if (request.token() != null && !request.token().isBlank()) {
+            try {
+                VerifiedToken verified = jwtService.verify(request.token());
+                jti = verified.id();
+                expiresAt = verified.expiresAt();
+            } catch (RevokedTokenException | ExpiredJwtException ex) {
+                // već opozvan ili istekao - nema posla
+                return ResponseEntity.ok(Map.of("revoked", false, "reason", "already_inactive"));
+            } catch (JwtException | IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "error", "invalid_token",
+                        "message", "Token nije ispravan - ne može se opozvati."
+                ));
+            }
+        }
+
+        if (jti == null || jti.isBlank() || expiresAt == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "invalid_request",
+                    "message", "Pošalji token ili jti + expiresAt (token bez jti se ne može opozvati)."
+            ));
+        }
+
+        revocations.revoke(jti, expiresAt);
+        return ResponseEntity.ok(Map.of(
+                "revoked", true,
+                "jti", jti,
+                "expiresAt", expiresAt.toString()
+        ));
+    }
+}
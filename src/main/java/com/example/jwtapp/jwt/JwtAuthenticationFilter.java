@@ -1,15 +1,18 @@
 package com.example.jwtapp.jwt;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -30,10 +33,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
-
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    private final RoleAuthorities roleAuthorities = new RoleAuthorities();
+    // true -> Authentication se gradi samo iz claim-ova, bez lookup-a korisnika po zahtjevu
+    private final boolean statelessPrincipal;
+    private final AuthMetrics metrics;
+
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            @Value("${app.jwt.statelessPrincipal:false}") boolean statelessPrincipal,
+            AuthMetrics metrics
+    ) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.statelessPrincipal = statelessPrincipal;
+        this.metrics = metrics;
     }
 
     @Override
@@ -53,46 +67,65 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String token = authHeader.substring(7);
 
         try {
-            final String username = jwtService.extractUsername(token);
+            // Jedan parse + jedna provjera potpisa po zahtjevu; sve ostalo čitamo iz VerifiedToken.
+            final VerifiedToken verified = jwtService.verify(token);
+            final String username = verified.subject();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (jwtService.isTokenValid(token, userDetails)) {
-                    List<String> roles = jwtService.extractRoles(token);
-                    
-                    if (roles == null || roles.isEmpty()) {
+                Object principal;
+                if (statelessPrincipal) {
+                    // Potpis i exp su dokaz identiteta; principal je samo username.
+                    // Zaključani/obrisani korisnik zadržava pristup do isteka tokena.
+                    principal = username;
+                    if (verified.isExpired(Instant.now())) {
+                        metrics.failure(TokenFailure.EXPIRED);
                         filterChain.doFilter(request, response);
                         return;
                     }
-                    
-                    List<SimpleGrantedAuthority> authorities = roles.stream()
-                            .map(String::trim)
-                            .filter(role -> !role.isBlank())
-                            .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
-                            .map(SimpleGrantedAuthority::new)
-                            .toList();
-                    
-                    // Još jedna provjera - ako su sve role bile prazni stringovi
-                    if (authorities.isEmpty()) {
+                } else {
+                    long lookupStart = System.nanoTime();
+                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    metrics.record(AuthMetrics.Phase.USER_LOOKUP, lookupStart);
+                    principal = userDetails;
+                    Instant now = Instant.now();
+                    if (!verified.isValidFor(userDetails, now)) {
+                        if (verified.isExpired(now)) {
+                            metrics.failure(TokenFailure.EXPIRED);
+                        } else {
+                            metrics.subjectMismatch();
+                        }
                         filterChain.doFilter(request, response);
                         return;
                     }
+                }
 
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    authorities
-                            );
-
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                // Prazan rezultat i kad nema rola i kad su sve role bile prazni stringovi
+                long authoritiesStart = System.nanoTime();
+                List<GrantedAuthority> authorities = roleAuthorities.forRoles(verified.roles());
+                metrics.record(AuthMetrics.Phase.AUTHORITIES, authoritiesStart);
+                if (authorities.isEmpty()) {
+                    metrics.emptyRoles();
+                    filterChain.doFilter(request, response);
+                    return;
                 }
+
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(
+                                principal,
+                                null,
+                                authorities
+                        );
+
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (JwtException | IllegalArgumentException ex) {
             // Invalid/expired/malformed token -> leave context empty and continue.
             // Spring Security will later return 401 for protected endpoints.
+            metrics.failure(TokenFailure.of(ex));
+        } catch (UsernameNotFoundException ex) {
+            // Ispravan token za korisnika kojeg više nema - isto kao neispravan token, ne 500.
+            metrics.userNotFound();
         }
 
         filterChain.doFilter(request, response);
@@ -0,0 +1,361 @@
+package com.example.jwtapp.jwt;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Signing/verification keys indexed by {@code kid}.
+ * <p>
+ * HS256 (default) keeps the old behaviour: one shared secret from app.jwt.secret.
+ * RS256/ES256 sign with a private key and verify with public keys only, which are
+ * published at /.well-known/jwks.json.
+ * <p>
+ * Nodes that should verify but never mint get only app.jwt.keys.publicKey (no privateKey);
+ * app.jwt.keys.verificationKeys adds more accepted public keys. Without a configured kid the
+ * kid is derived from the public key, so every node arrives at the same one.
+ * <p>
+ * With configured keys, rotation is a deploy-time change: publish the new public key in
+ * verificationKeys on every node, then switch the minting node's key pair, and drop the old
+ * public key once app.jwt.expMinutes have passed. {@link #rotate()} only works on a ring that
+ * generated its own key pair at startup - a single node, where nobody else has to verify.
+ * There, the previous key stays valid until every token it could have signed has expired.
+ * All state is one immutable snapshot swapped on change, so the hot-path lookup is a plain
+ * HashMap get without locking.
+ */
+@Component
+public class JwtKeyRing {
+
+    public record SigningKey(String kid, SignatureAlgorithm algorithm, Key key) {}
+
+    private record VerificationKey(SignatureAlgorithm algorithm, Key key, long retireAtMillis) {}
+
+    // active je null na čvoru koji samo verificira
+    private record State(SigningKey active, Map<String, VerificationKey> byKid, Map<String, Object> jwks,
+                         long nextRetireAtMillis) {}
+
+    private final SignatureAlgorithm algorithm;
+    private final long overlapMillis;
+    // samo ključevi generirani pri startu smiju se rotirati na licu mjesta
+    private final boolean generated;
+    private volatile State state;
+
+    @Autowired
+    public JwtKeyRing(
+            @Value("${app.jwt.algorithm:HS256}") String algorithm,
+            @Value("${app.jwt.secret}") String secret,
+            @Value("${app.jwt.expMinutes}") long expMinutes,
+            @Value("${app.jwt.keys.kid:}") String kid,
+            @Value("${app.jwt.keys.privateKey:}") String privateKeyPem,
+            @Value("${app.jwt.keys.publicKey:}") String publicKeyPem,
+            @Value("${app.jwt.keys.verificationKeys:}") String verificationKeys
+    ) {
+        this.algorithm = SignatureAlgorithm.forName(algorithm);
+        // +1 min tolerancije da token potpisan tik prije rotacije ne padne na rubu
+        this.overlapMillis = Duration.ofMinutes(expMinutes + 1).toMillis();
+
+        Map<String, Key> accepted = new LinkedHashMap<>();
+        if (this.algorithm == SignatureAlgorithm.HS256) {
+            if (!verificationKeys.isBlank()) {
+                throw new IllegalArgumentException("app.jwt.keys.verificationKeys needs RS256 or ES256");
+            }
+            byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+            // HS256 requires 256-bit (32-byte) key min.
+            SigningKey initial = new SigningKey(hmacKid(bytes), this.algorithm, Keys.hmacShaKeyFor(bytes));
+            accepted.put(initial.kid(), initial.key());
+            this.generated = false;
+            this.state = install(null, initial, accepted);
+        } else if (this.algorithm == SignatureAlgorithm.RS256 || this.algorithm == SignatureAlgorithm.ES256) {
+            SigningKey initial = null;
+            if (!privateKeyPem.isBlank()) {
+                KeyPair pair = parseKeyPair(this.algorithm, privateKeyPem, publicKeyPem);
+                initial = new SigningKey(kid.isBlank() ? publicKid(pair.getPublic()) : kid, this.algorithm, pair.getPrivate());
+                accepted.put(initial.kid(), pair.getPublic());
+            } else if (!publicKeyPem.isBlank()) {
+                PublicKey publicKey = parsePublicKey(this.algorithm, publicKeyPem);
+                accepted.put(kid.isBlank() ? publicKid(publicKey) : kid, publicKey);
+            } else if (verificationKeys.isBlank()) {
+                KeyPair pair = Keys.keyPairFor(this.algorithm);
+                initial = new SigningKey(kid.isBlank() ? newKid() : kid, this.algorithm, pair.getPrivate());
+                accepted.put(initial.kid(), pair.getPublic());
+            }
+            accepted.putAll(parseVerificationKeys(this.algorithm, verificationKeys));
+            this.generated = privateKeyPem.isBlank() && publicKeyPem.isBlank() && verificationKeys.isBlank();
+            this.state = install(null, initial, accepted);
+        } else {
+            throw new IllegalArgumentException("Unsupported app.jwt.algorithm: " + algorithm
+                    + " (supported: HS256, RS256, ES256)");
+        }
+    }
+
+    public JwtKeyRing(String algorithm, String secret, long expMinutes, String kid, String privateKeyPem, String publicKeyPem) {
+        this(algorithm, secret, expMinutes, kid, privateKeyPem, publicKeyPem, "");
+    }
+
+    /**
+     * HS256 ring for a single secret (unit tests, tools).
+     */
+    public static JwtKeyRing hmac(String secret) {
+        return new JwtKeyRing("HS256", secret, 0, "", "", "");
+    }
+
+    /**
+     * The key new tokens are signed with.
+     *
+     * @throws IllegalStateException on a verify-only node (no app.jwt.keys.privateKey)
+     */
+    public SigningKey active() {
+        SigningKey active = state.active();
+        if (active == null) {
+            throw new IllegalStateException("Ovaj čvor samo verificira tokene - nema app.jwt.keys.privateKey.");
+        }
+        return active;
+    }
+
+    public boolean canSign() {
+        return state.active() != null;
+    }
+
+    /**
+     * Whether {@link #rotate()} is allowed: only for a key pair generated at startup.
+     */
+    public boolean canRotate() {
+        return generated;
+    }
+
+    public SignatureAlgorithm algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * O(1) lookup of the verification key for a token header.
+     * A missing kid falls back to the active key (tokens minted before kids were introduced).
+     *
+     * @return the key, or null when the kid is unknown, retired, or does not match the header alg
+     */
+    public Key verificationKey(String kid, String headerAlgorithm) {
+        State current = state;
+        if (kid == null && current.active() == null) {
+            return null;
+        }
+        VerificationKey vk = kid == null
+                ? current.byKid().get(current.active().kid())
+                : current.byKid().get(kid);
+
+        if (vk == null || vk.retireAtMillis() <= System.currentTimeMillis()) {
+            return null;
+        }
+        // Nikad ne dopuštamo da header bira algoritam (alg confusion, npr. HS256 s javnim RSA ključem).
+        if (!vk.algorithm().getValue().equals(headerAlgorithm)) {
+            return null;
+        }
+        return vk.key();
+    }
+
+    /**
+     * Pre-rendered JWKS document with all public keys that are still accepted.
+     * Empty for HS256 - a shared secret is never published.
+     */
+    public Map<String, Object> jwks() {
+        State current = state;
+        if (current.nextRetireAtMillis() <= System.currentTimeMillis()) {
+            current = dropRetired();
+        }
+        return current.jwks();
+    }
+
+    /**
+     * Generates a new active key pair. Previous keys stay verifiable for app.jwt.expMinutes.
+     * Only for a ring that generated its key at startup; configured keys rotate at deploy time.
+     *
+     * @return kid of the new active key
+     */
+    public synchronized String rotate() {
+        if (!generated) {
+            throw new IllegalStateException("Ključevi dolaze iz konfiguracije (app.jwt.secret / app.jwt.keys.*) - rotacija ide kroz deploy.");
+        }
+        KeyPair pair = Keys.keyPairFor(algorithm);
+        SigningKey next = new SigningKey(newKid(), algorithm, pair.getPrivate());
+        this.state = install(state, next, Map.of(next.kid(), pair.getPublic()));
+        return next.kid();
+    }
+
+    // novi snapshot bez ključeva kojima je prošao retireAt - JWKS ih više ne objavljuje
+    private synchronized State dropRetired() {
+        State current = state;
+        long now = System.currentTimeMillis();
+        if (current.nextRetireAtMillis() > now) {
+            return current;
+        }
+        Map<String, VerificationKey> byKid = new LinkedHashMap<>(current.byKid());
+        byKid.values().removeIf(vk -> vk.retireAtMillis() <= now);
+        this.state = snapshot(current.active(), byKid);
+        return state;
+    }
+
+    /**
+     * {@code accepted} holds the active key's verification key (if this node signs) plus any
+     * other keys accepted indefinitely. Keys of {@code previous} stay until they retire; its
+     * active key starts retiring now.
+     */
+    private State install(State previous, SigningKey active, Map<String, Key> accepted) {
+        long now = System.currentTimeMillis();
+        Map<String, VerificationKey> byKid = new LinkedHashMap<>();
+        accepted.forEach((kid, key) -> byKid.put(kid, new VerificationKey(algorithm, key, Long.MAX_VALUE)));
+
+        if (previous != null) {
+            String previousKid = previous.active() == null ? null : previous.active().kid();
+            previous.byKid().forEach((kid, vk) -> {
+                long retireAt = kid.equals(previousKid) ? now + overlapMillis : vk.retireAtMillis();
+                if (retireAt > now) {
+                    byKid.putIfAbsent(kid, new VerificationKey(vk.algorithm(), vk.key(), retireAt));
+                }
+            });
+        }
+        return snapshot(active, byKid);
+    }
+
+    private State snapshot(SigningKey active, Map<String, VerificationKey> byKid) {
+        Map<String, Key> published = new LinkedHashMap<>();
+        long nextRetireAt = Long.MAX_VALUE;
+        for (Map.Entry<String, VerificationKey> entry : byKid.entrySet()) {
+            published.put(entry.getKey(), entry.getValue().key());
+            nextRetireAt = Math.min(nextRetireAt, entry.getValue().retireAtMillis());
+        }
+        return new State(active, Map.copyOf(byKid), renderJwks(published), nextRetireAt);
+    }
+
+    private Map<String, Object> renderJwks(Map<String, Key> keys) {
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        keys.forEach((kid, key) -> {
+            if (key instanceof RSAPublicKey rsa) {
+                jwks.add(Map.of(
+                        "kty", "RSA",
+                        "kid", kid,
+                        "use", "sig",
+                        "alg", algorithm.getValue(),
+                        "n", base64Url(unsigned(rsa.getModulus(), 0)),
+                        "e", base64Url(unsigned(rsa.getPublicExponent(), 0))
+                ));
+            } else if (key instanceof ECPublicKey ec) {
+                jwks.add(Map.of(
+                        "kty", "EC",
+                        "kid", kid,
+                        "use", "sig",
+                        "alg", algorithm.getValue(),
+                        "crv", "P-256",
+                        "x", base64Url(unsigned(ec.getW().getAffineX(), 32)),
+                        "y", base64Url(unsigned(ec.getW().getAffineY(), 32))
+                ));
+            }
+        });
+        return Map.of("keys", List.copyOf(jwks));
+    }
+
+    private static KeyPair parseKeyPair(SignatureAlgorithm algorithm, String privatePem, String publicPem) {
+        if (publicPem.isBlank()) {
+            throw new IllegalArgumentException("app.jwt.keys.publicKey is required together with app.jwt.keys.privateKey");
+        }
+        try {
+            PrivateKey privateKey = keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(pemBody(privatePem)));
+            return new KeyPair(parsePublicKey(algorithm, publicPem), privateKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Cannot parse app.jwt.keys for " + algorithm.getValue(), e);
+        }
+    }
+
+    private static PublicKey parsePublicKey(SignatureAlgorithm algorithm, String pem) {
+        try {
+            return keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(pemBody(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cannot parse public key for " + algorithm.getValue(), e);
+        }
+    }
+
+    // "kid:base64 X.509,kid:base64 X.509" - base64 nema ni ':' ni ','
+    private static Map<String, Key> parseVerificationKeys(SignatureAlgorithm algorithm, String keys) {
+        Map<String, Key> parsed = new LinkedHashMap<>();
+        for (String entry : keys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("app.jwt.keys.verificationKeys entries are kid:base64, got " + entry.trim());
+            }
+            parsed.put(entry.substring(0, colon).trim(), parsePublicKey(algorithm, entry.substring(colon + 1)));
+        }
+        return parsed;
+    }
+
+    private static KeyFactory keyFactory(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+        return KeyFactory.getInstance(algorithm.getFamilyName().equals("ECDSA") ? "EC" : "RSA");
+    }
+
+    private static byte[] pemBody(String pem) {
+        String body = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+
+    private static String hmacKid(byte[] secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret);
+            // kid ne smije otkriti tajnu - uzimamo samo prefiks hash-a
+            return "hs256-" + HexFormat.of().formatHex(digest, 0, 8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // isti javni ključ -> isti kid na svakom čvoru
+    private static String publicKid(PublicKey key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String newKid() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        int start = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int size = Math.max(bytes.length - start, length);
+        byte[] out = new byte[size];
+        System.arraycopy(bytes, start, out, size - (bytes.length - start), bytes.length - start);
+        return out;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -1,42 +1,88 @@
 package com.example.jwtapp.jwt;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.security.Key;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.CompressionCodecs;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 
 @Service
 public class JwtService {
 
-    private final Key signingKey;
+    // kad je jjwt (isti thread) zatražio ključ - granica između parse i signature faze za AuthMetrics
+    private static final ThreadLocal<long[]> KEY_LOOKUP_AT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final JwtKeyRing keyRing;
+    // JwtParser je immutable i thread-safe - gradimo ga jednom, ne na svakom zahtjevu.
+    private final JwtParser parser;
     private final long expMinutes;
     private final String issuer;
     private final String audience;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService revocations;
+    private final CompactTokenProfile compactProfile;
+    private final AuthMetrics metrics;
+
+    public JwtService(String secret, long expMinutes, String issuer, String audience) {
+        this(JwtKeyRing.hmac(secret), expMinutes, issuer, audience,
+                VerifiedTokenCache.disabled(), TokenRevocationService.empty(), CompactTokenProfile.disabled(),
+                AuthMetrics.noop());
+    }
 
+    @Autowired
     public JwtService(
-            @Value("${app.jwt.secret}") String secret,
+            JwtKeyRing keyRing,
             @Value("${app.jwt.expMinutes}") long expMinutes,
             @Value("${app.jwt.issuer}") String issuer,
-            @Value("${app.jwt.audience}") String audience
+            @Value("${app.jwt.audience}") String audience,
+            VerifiedTokenCache verifiedTokenCache,
+            TokenRevocationService revocations,
+            CompactTokenProfile compactProfile,
+            AuthMetrics metrics
     ) {
-        // HS256 requires 256-bit (32-byte) key min.
-        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.keyRing = keyRing;
+        this.parser = Jwts.parserBuilder()
+                // kid iz headera -> ključ iz prstena (O(1)); nepoznat/povučen kid = odbijen token
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        KEY_LOOKUP_AT.get()[0] = System.nanoTime();
+                        Key key = keyRing.verificationKey(header.getKeyId(), header.getAlgorithm());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown or retired signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
         this.expMinutes = expMinutes;
         this.issuer = issuer;
         this.audience = audience;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.revocations = revocations;
+        this.compactProfile = compactProfile;
+        this.metrics = metrics;
     }
 
     public String generateToken(UserDetails user) {
@@ -50,20 +96,99 @@ public class JwtService {
         Instant now = Instant.now();
         Instant exp = now.plus(expMinutes, ChronoUnit.MINUTES);
 
+        JwtKeyRing.SigningKey signingKey = keyRing.active();
+
+        if (compactProfile.isEnabled()) {
+            return generateCompactToken(user, roles, now, exp, signingKey);
+        }
+
         return Jwts.builder()
                 .setHeaderParam("typ", "JWT")
+                .setHeaderParam("kid", signingKey.kid())
                 .setIssuer(issuer)
                 .setAudience(audience)
                 .setSubject(user.getUsername())
+                .setId(UUID.randomUUID().toString()) // jti - omogućuje opoziv prije isteka
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(exp))
                 .claim("rol", roles) // ["USER", "ADMIN"] - bez ROLE_ prefiksa
-                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .signWith(signingKey.key(), signingKey.algorithm())
+                .compact();
+    }
+
+    /**
+     * Same claims, fewer bytes: roles as a bitmask ({@link CompactTokenProfile}), 22-char jti
+     * instead of a 36-char UUID string, no typ header, and no kid where there is only one key.
+     */
+    private String generateCompactToken(UserDetails user, List<String> roles, Instant now, Instant exp,
+                                        JwtKeyRing.SigningKey signingKey) {
+        CompactTokenProfile.EncodedRoles encoded = compactProfile.encode(roles);
+
+        JwtBuilder builder = Jwts.builder()
+                .setIssuer(issuer)
+                .setAudience(audience)
+                .setSubject(user.getUsername())
+                .setId(compactId())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(exp));
+
+        // HS256 ima samo jedan ključ - parser bez kid-a ionako uzima aktivni
+        if (signingKey.algorithm() != SignatureAlgorithm.HS256) {
+            builder.setHeaderParam("kid", signingKey.kid());
+        }
+        if (encoded.mask() != 0) {
+            builder.claim(CompactTokenProfile.MASK_CLAIM, encoded.mask());
+        }
+        if (!encoded.unregistered().isEmpty()) {
+            builder.claim("rol", encoded.unregistered());
+        }
+        if (compactProfile.shouldCompress(encoded)) {
+            builder.compressWith(CompressionCodecs.DEFLATE);
+        }
+
+        return builder
+                .signWith(signingKey.key(), signingKey.algorithm())
                 .compact();
     }
 
+    private static String compactId() {
+        UUID id = UUID.randomUUID();
+        byte[] bytes = ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Verifies the signature and parses the claims exactly once.
+     * Throws {@link io.jsonwebtoken.JwtException} for invalid/expired/malformed tokens.
+     * With app.jwt.cache.enabled a repeated token is served from {@link VerifiedTokenCache}.
+     * The revocation check runs after the cache, so a revoked token is rejected even if cached.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken verified = verifiedTokenCache.getOrVerify(token, this::parse);
+        if (revocations.isRevoked(verified.id())) {
+            throw new RevokedTokenException("Token has been revoked: " + verified.id());
+        }
+        return verified;
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims = extractAllClaims(token);
+        return new VerifiedToken(
+                claims.getSubject(),
+                compactProfile.decode(claims.get(CompactTokenProfile.MASK_CLAIM), rolesOf(claims.get("rol"))),
+                toInstant(claims.getExpiration()),
+                toInstant(claims.getIssuedAt()),
+                claims.getIssuer(),
+                claims.getAudience(),
+                claims.getId()
+        );
+    }
+
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return verify(token).subject();
     }
 
     /**
@@ -71,12 +196,17 @@ public class JwtService {
      * - Ako je List<String> → vraća listu
      * - Ako je String → vraća listu s jednim elementom
      * - Ako je null ili drugi tip → vraća praznu listu
+     * Kompaktni tokeni (rlm bitmaska) i klasični (rol lista) čitaju se jednako.
      */
-    
     public List<String> extractRoles(String token) {
-        Claims claims = extractAllClaims(token);
-        Object raw = claims.get("rol");
-        
+        return verify(token).roles();
+    }
+
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return verify(token).isValidFor(userDetails, Instant.now());
+    }
+
+    private static List<String> rolesOf(Object raw) {
         if (raw == null) {
             return List.of();
         }
@@ -87,7 +217,7 @@ public class JwtService {
         }
         
         // Ako je Collection (očekivano)
-        if (raw instanceof java.util.Collection<?> c) {
+        if (raw instanceof Collection<?> c) {
             return c.stream()
                     .filter(item -> item != null)
                     .map(String::valueOf)
@@ -99,21 +229,18 @@ public class JwtService {
         return List.of();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        Date exp = extractAllClaims(token).getExpiration();
-        return exp.before(new Date());
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        long[] keyLookupAt = KEY_LOOKUP_AT.get();
+        keyLookupAt[0] = 0;
+        long start = System.nanoTime();
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } finally {
+            metrics.recordVerify(start, keyLookupAt[0], System.nanoTime());
+        }
     }
 }
@@ -0,0 +1,12 @@
+package com.example.jwtapp.jwt;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Thrown by {@link JwtService#verify(String)} for a correctly signed token whose jti was revoked.
+ */
+public class RevokedTokenException extends JwtException {
+    public RevokedTokenException(String message) {
+        super(message);
+    }
+}
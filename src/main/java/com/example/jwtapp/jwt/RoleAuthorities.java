@@ -0,0 +1,59 @@
+package com.example.jwtapp.jwt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Maps a role set from the token ("USER", "ADMIN") to an immutable list of authorities
+ * ("ROLE_USER", "ROLE_ADMIN"). Every distinct role set is built once and then shared,
+ * so the per-request path is a single map lookup with no string or list allocation.
+ * <p>
+ * Tokens are signed by us, so the number of distinct role sets is small; the cap only
+ * protects memory if that assumption ever breaks (we just stop interning new sets).
+ */
+public final class RoleAuthorities {
+
+    private static final int MAX_ROLE_SETS = 1024;
+
+    private final ConcurrentHashMap<List<String>, List<GrantedAuthority>> byRoleSet = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, GrantedAuthority> byRole = new ConcurrentHashMap<>();
+
+    /**
+     * @param roles immutable role list as returned by {@link VerifiedToken#roles()}
+     * @return shared immutable authorities; empty if no role survived normalisation
+     */
+    public List<GrantedAuthority> forRoles(List<String> roles) {
+        if (roles.isEmpty()) {
+            return List.of();
+        }
+
+        List<GrantedAuthority> cached = byRoleSet.get(roles);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<GrantedAuthority> built = build(roles);
+        if (byRoleSet.size() < MAX_ROLE_SETS) {
+            List<GrantedAuthority> raced = byRoleSet.putIfAbsent(roles, built);
+            return raced != null ? raced : built;
+        }
+        return built;
+    }
+
+    private List<GrantedAuthority> build(List<String> roles) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (String raw : roles) {
+            String role = raw.trim();
+            if (role.isBlank()) {
+                continue;
+            }
+            String name = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+            authorities.add(byRole.computeIfAbsent(name, SimpleGrantedAuthority::new));
+        }
+        return List.copyOf(authorities);
+    }
+}
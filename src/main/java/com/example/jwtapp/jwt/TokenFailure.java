@@ -0,0 +1,50 @@
+package com.example.jwtapp.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SecurityException;
+
+/**
+ * Why a token was rejected, as a short stable code for API responses.
+ * The exception messages from jjwt are not meant for clients (and change between versions).
+ */
+public enum TokenFailure {
+
+    EXPIRED("expired"),
+    REVOKED("revoked"),
+    BAD_SIGNATURE("bad_signature"),
+    // nepoznat/povučen kid ili nepodržan oblik tokena (npr. nepotpisan)
+    UNSUPPORTED("unsupported"),
+    MALFORMED("malformed"),
+    INVALID("invalid");
+
+    private final String code;
+
+    TokenFailure(String code) {
+        this.code = code;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public static TokenFailure of(RuntimeException ex) {
+        if (ex instanceof ExpiredJwtException) {
+            return EXPIRED;
+        }
+        if (ex instanceof RevokedTokenException) {
+            return REVOKED;
+        }
+        if (ex instanceof SecurityException) {
+            return BAD_SIGNATURE;
+        }
+        if (ex instanceof UnsupportedJwtException) {
+            return UNSUPPORTED;
+        }
+        if (ex instanceof MalformedJwtException || ex instanceof IllegalArgumentException) {
+            return MALFORMED;
+        }
+        return INVALID;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.jwtapp.jwt;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Introspection result for one token. Field names follow RFC 7662 (active, sub, exp, ...),
+ * so gateways that already speak OAuth introspection can read it without mapping.
+ * An inactive token carries only {@code error}; claims of a rejected token are never echoed back.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospection(
+        boolean active,
+        String sub,
+        List<String> roles,
+        String iss,
+        String aud,
+        Long exp,
+        Long iat,
+        String jti,
+        String error
+) {
+
+    public static TokenIntrospection active(VerifiedToken token) {
+        return new TokenIntrospection(
+                true,
+                token.subject(),
+                token.roles(),
+                token.issuer(),
+                token.audience(),
+                token.expiresAt().getEpochSecond(),
+                token.issuedAt() == null ? null : token.issuedAt().getEpochSecond(),
+                token.id(),
+                null
+        );
+    }
+
+    public static TokenIntrospection inactive(TokenFailure failure) {
+        return new TokenIntrospection(false, null, null, null, null, null, null, null, failure.code());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.jwtapp.jwt;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Verifies a batch of tokens in one call (API gateways).
+ * <p>
+ * Duplicates are verified once - a gateway batch typically carries the same token for every
+ * request of one client. Distinct tokens are verified on our own ForkJoinPool
+ * (app.jwt.introspect.threads, 0 = half the cores) - signature checks are pure CPU work, and a big
+ * batch must not take the JVM-wide common pool away from everything else. Small batches stay on
+ * the calling thread, where splitting would cost more than it saves.
+ */
+@Service
+public class TokenIntrospectionService implements DisposableBean {
+
+    private static final int PARALLEL_THRESHOLD = 16;
+
+    private final JwtService jwtService;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public TokenIntrospectionService(JwtService jwtService, @Value("${app.jwt.introspect.threads:0}") int threads) {
+        this.jwtService = jwtService;
+        this.pool = new ForkJoinPool(threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    public TokenIntrospectionService(JwtService jwtService) {
+        this(jwtService, 0);
+    }
+
+    /**
+     * @return one result per input token, in request order (duplicates share a result)
+     */
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(tokens));
+        Instant now = Instant.now();
+
+        Map<String, TokenIntrospection> byToken = distinct.size() >= PARALLEL_THRESHOLD
+                // parallel stream pokrenut iz taska ostaje u tom poolu
+                ? pool.submit(() -> verifyAll(distinct.parallelStream(), now)).join()
+                : verifyAll(distinct.stream(), now);
+
+        List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(token == null
+                    ? TokenIntrospection.inactive(TokenFailure.MALFORMED)
+                    : byToken.get(token));
+        }
+        return results;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private Map<String, TokenIntrospection> verifyAll(Stream<String> tokens, Instant now) {
+        return tokens
+                .filter(token -> token != null)
+                .collect(Collectors.toConcurrentMap(Function.identity(), token -> introspect(token, now)));
+    }
+
+    private TokenIntrospection introspect(String token, Instant now) {
+        try {
+            VerifiedToken verified = jwtService.verify(token);
+            // token bez exp-a parser propušta, ali ga ne smatramo aktivnim
+            if (verified.isExpired(now)) {
+                return TokenIntrospection.inactive(TokenFailure.EXPIRED);
+            }
+            return TokenIntrospection.active(verified);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return TokenIntrospection.inactive(TokenFailure.of(ex));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.jwtapp.jwt;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Denylist of revoked token ids (jti).
+ * <p>
+ * Lookup: a Bloom filter answers "definitely not revoked" for almost every request
+ * without touching the exact set; only a Bloom hit goes to the ConcurrentHashMap.
+ * <p>
+ * Memory: entries are grouped in one-minute buckets by the token's exp. A revoked token
+ * stops mattering once it would have expired anyway, so whole buckets are dropped and
+ * the Bloom filter is rebuilt from what is left. Size therefore follows the number of
+ * revoked tokens that are still alive, not the total ever revoked. The sweep runs at most
+ * once a minute, from revoke() or from whichever lookup notices it is due, so memory is
+ * reclaimed even when nobody revokes anything for a long time.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final long BUCKET_MILLIS = 60_000;
+    private static final int HASHES = 7;
+
+    // jti -> bucket (exp zaokružen na minutu gore)
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Set<String>> buckets = new ConcurrentSkipListMap<>();
+    private final int bloomBits;
+    private volatile AtomicLongArray bloom;
+    // pisci (revoke, sweep) idu jedan po jedan; čitač samo tryLock-om pokrene zakašnjeli sweep
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile long nextSweep;
+    private final Clock clock;
+
+    @Autowired
+    public TokenRevocationService(@Value("${app.jwt.revocation.expectedEntries:100000}") int expectedEntries) {
+        this(expectedEntries, Clock.systemUTC());
+    }
+
+    public TokenRevocationService(int expectedEntries, Clock clock) {
+        this.clock = clock;
+        // ~1% false positive rate: m = n * 9.6 bits, k = 7
+        long bits = Math.max(1024, (long) Math.ceil(expectedEntries * 9.6));
+        this.bloomBits = (int) Math.min(Integer.MAX_VALUE - 63, (bits + 63) & ~63L);
+        this.bloom = new AtomicLongArray(bloomBits / 64);
+    }
+
+    public static TokenRevocationService empty() {
+        return new TokenRevocationService(1024);
+    }
+
+    /**
+     * Hot path. Tokens without a jti (issued before revocation existed) can't be revoked.
+     */
+    public boolean isRevoked(String jti) {
+        long now = clock.millis();
+        if (now >= nextSweep && writeLock.tryLock()) {
+            try {
+                sweepExpired(now);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        if (jti == null || !mightContain(bloom, jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Revokes the token until its own expiry. Already expired tokens are ignored, and revoking
+     * a jti again never shortens it - the later expiry wins.
+     * Revocation is a rare admin action, so writers simply serialize; readers never lock.
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        writeLock.lock();
+        try {
+            long now = clock.millis();
+            sweepExpired(now);
+
+            long exp = expiresAt.toEpochMilli();
+            if (exp <= now) {
+                return;
+            }
+
+            long bucket = (exp / BUCKET_MILLIS + 1) * BUCKET_MILLIS;
+            Long existing = revoked.get(jti);
+            if (existing != null && existing >= bucket) {
+                // već opozvan do kasnije - raniji bucket bi ga pri sweepu maknuo prerano
+                return;
+            }
+            buckets.computeIfAbsent(bucket, b -> ConcurrentHashMap.newKeySet()).add(jti);
+            // bloom prije exact seta - čitatelj koji vidi jti u mapi sigurno vidi i bitove
+            add(bloom, jti);
+            revoked.merge(jti, bucket, Math::max);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // samo pod writeLockom
+    private void sweepExpired(long now) {
+        if (now < nextSweep) {
+            return;
+        }
+        nextSweep = now + BUCKET_MILLIS;
+
+        boolean removedAny = false;
+        Iterator<Map.Entry<Long, Set<String>>> it = buckets.headMap(now, true).entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Set<String>> expired = it.next();
+            long bucket = expired.getKey();
+            // isti jti opozvan ponovo s kasnijim exp živi u novijem bucketu - taj ostaje
+            expired.getValue().forEach(jti -> revoked.remove(jti, bucket));
+            it.remove();
+            removedAny = true;
+        }
+
+        if (removedAny) {
+            AtomicLongArray rebuilt = new AtomicLongArray(bloomBits / 64);
+            revoked.keySet().forEach(jti -> add(rebuilt, jti));
+            bloom = rebuilt;
+        }
+    }
+
+    private void add(AtomicLongArray bits, String jti) {
+        long h = mix(jti.hashCode());
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bloomBits);
+            int word = bit >>> 6;
+            long mask = 1L << (bit & 63);
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private boolean mightContain(AtomicLongArray bits, String jti) {
+        long h = mix(jti.hashCode());
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bloomBits);
+            if ((bits.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // MurmurHash3 fmix64 - razmaže 32-bitni String.hashCode na 64 bita za double hashing
+    private static long mix(int value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e53c32e1bL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
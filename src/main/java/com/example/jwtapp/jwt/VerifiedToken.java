@@ -0,0 +1,39 @@
+package com.example.jwtapp.jwt;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Result of a single signature check + claims parse.
+ * Everything the filter needs is read from here, so the token is never parsed twice.
+ * {@code id} is the jti claim (null for tokens minted before revocation support).
+ */
+public record VerifiedToken(
+        String subject,
+        List<String> roles,
+        Instant expiresAt,
+        Instant issuedAt,
+        String issuer,
+        String audience,
+        String id
+) {
+
+    public VerifiedToken {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    /**
+     * Token bez exp claim-a tretiramo kao istekao - ne vjerujemo tokenu koji traje vječno.
+     */
+    public boolean isExpired(Instant now) {
+        return expiresAt == null || !now.isBefore(expiresAt);
+    }
+
+    public boolean isValidFor(UserDetails userDetails, Instant now) {
+        return subject != null
+                && subject.equals(userDetails.getUsername())
+                && !isExpired(now);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.jwtapp.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.jwtapp.cache.BoundedCache;
+
+/**
+ * Opt-in cache of already verified tokens (app.jwt.cache.enabled).
+ * <p>
+ * Key is the SHA-256 digest of the raw token, never the token itself. A collision-resistant
+ * digest matters here: a cheap hash would let a forged token hit the entry of a real one.
+ * Entries live at most until the token's exp, so an expired token always falls through to
+ * the real parser, which then rejects it.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    // null kad je cache isključen
+    private final BoundedCache<TokenDigest, VerifiedToken> cache;
+
+    @Autowired
+    public VerifiedTokenCache(
+            @Value("${app.jwt.cache.enabled:false}") boolean enabled,
+            @Value("${app.jwt.cache.maxSize:10000}") int maxSize
+    ) {
+        this.cache = enabled ? new BoundedCache<>(maxSize) : null;
+    }
+
+    public static VerifiedTokenCache disabled() {
+        return new VerifiedTokenCache(false, 0);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Returns the cached result for this token, or runs {@code verifier} and caches what it returns.
+     * Exceptions from the verifier are not cached.
+     */
+    public VerifiedToken getOrVerify(String token, Function<String, VerifiedToken> verifier) {
+        if (cache == null) {
+            return verifier.apply(token);
+        }
+
+        TokenDigest key = TokenDigest.of(token);
+        VerifiedToken cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified = verifier.apply(token);
+        if (verified.expiresAt() != null) {
+            cache.put(key, verified, verified.expiresAt().toEpochMilli());
+        }
+        return verified;
+    }
+
+    public BoundedCache.Stats stats() {
+        return cache == null ? new BoundedCache.Stats(0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    /**
+     * 256-bit digest kept as four longs: cheap equals/hashCode and no byte[] per entry.
+     */
+    record TokenDigest(long a, long b, long c, long d) {
+
+        static TokenDigest of(String token) {
+            MessageDigest md = SHA256.get();
+            ByteBuffer digest = ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenDigest(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.jwtapp.notes;
+
+/**
+ * A stored note. {@code id} is its position in the owner's list, so it never changes
+ * and doubles as the pagination cursor ({@code GET /api/notes?after=id}).
+ */
+public record Note(long id, String text) {}
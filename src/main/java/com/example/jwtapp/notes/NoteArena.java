@@ -0,0 +1,59 @@
+package com.example.jwtapp.notes;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bump allocator for note bodies in direct (off-heap) ByteBuffer slabs.
+ * A note is stored as [length int][utf8 bytes] and addressed by one long: slab index in the
+ * high 32 bits, offset in the low 32. Nothing is ever freed - notes are append-only.
+ * <p>
+ * Reads use absolute get and need no lock; the owner partition's volatile size is what
+ * publishes a written note to readers.
+ */
+final class NoteArena {
+
+    private final int slabBytes;
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private ByteBuffer current;
+    private int position;
+    private volatile long allocatedBytes;
+
+    NoteArena(int slabBytes) {
+        if (slabBytes < 64) {
+            throw new IllegalArgumentException("app.notes.offheap.slabBytes must be at least 64");
+        }
+        this.slabBytes = slabBytes;
+    }
+
+    synchronized long write(String note) {
+        byte[] bytes = note.getBytes(StandardCharsets.UTF_8);
+        int needed = 4 + bytes.length;
+        if (current == null || position + needed > current.capacity()) {
+            // bilješka veća od slaba dobije svoj slab
+            current = ByteBuffer.allocateDirect(Math.max(slabBytes, needed));
+            position = 0;
+            slabs = Arrays.copyOf(slabs, slabs.length + 1);
+            slabs[slabs.length - 1] = current;
+            allocatedBytes += current.capacity();
+        }
+        long address = ((long) (slabs.length - 1) << 32) | position;
+        current.putInt(position, bytes.length);
+        current.put(position + 4, bytes);
+        position += needed;
+        return address;
+    }
+
+    String read(long address) {
+        ByteBuffer slab = slabs[(int) (address >>> 32)];
+        int offset = (int) address;
+        byte[] bytes = new byte[slab.getInt(offset)];
+        slab.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.jwtapp.notes;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes newly added notes to SSE subscribers (GET /api/notes/stream).
+ * <p>
+ * Publishing never blocks: the note is offered to each subscriber's bounded queue and a drain
+ * is scheduled on the sender pool, at most one per subscriber at a time. A subscriber whose
+ * queue is full is a slow consumer - it gets what is already queued and is then disconnected;
+ * it reconnects with Last-Event-ID and catches up from the store, so nothing is lost.
+ * <p>
+ * A resume sends at most bufferSize notes per drain and then queues the rest as a new drain,
+ * so an old Last-Event-ID can't keep a sender thread to itself.
+ * <p>
+ * {@link SseEmitter#send} blocks while the client's socket buffer is full. The pool keeps
+ * {@code threads} senders and starts more while those are blocked, up to {@code maxThreads}, so
+ * a stuck client ties up only its own thread. A watchdog drops a subscriber whose write has been
+ * blocked longer than sendTimeoutMillis; its emitter is completed with an error once the write returns.
+ * <p>
+ * A user gets at most {@code maxPerUser} open streams ({@link TooManyStreamsException}, 429). When
+ * all {@code maxThreads} senders are busy a new stream is refused ({@link StreamsBusyException}, 503)
+ * and a subscriber whose drain can't be scheduled is disconnected to resume later.
+ * <p>
+ * Events are published under the owner's partition lock, so every subscriber sees ids in order.
+ */
+@Component
+public class NoteEvents implements DisposableBean {
+
+    static final String EVENT_NAME = "note";
+
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private final NotesStore store;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final int maxPerUser;
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService watchdog;
+    private final ConcurrentHashMap<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public NoteEvents(
+            NotesStore store,
+            @Value("${app.notes.stream.bufferSize:256}") int bufferSize,
+            @Value("${app.notes.stream.timeoutMillis:1800000}") long timeoutMillis,
+            @Value("${app.notes.stream.threads:0}") int threads,
+            @Value("${app.notes.stream.sendTimeoutMillis:10000}") long sendTimeoutMillis,
+            @Value("${app.notes.stream.maxThreads:256}") int maxThreads,
+            @Value("${app.notes.stream.maxPerUser:8}") int maxPerUser
+    ) {
+        this.store = store;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.maxPerUser = maxPerUser;
+        int coreThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // bez reda: kad su svi zauzeti (npr. blokirani u send), posao dobije novi thread - do maxThreads
+        this.senders = new ThreadPoolExecutor(
+                coreThreads, Math.max(coreThreads, maxThreads),
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                    Thread t = new Thread(r, "notes-sse-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notes-sse-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, sendTimeoutMillis / 2);
+        watchdog.scheduleWithFixedDelay(this::dropStalled, period, period, TimeUnit.MILLISECONDS);
+        store.onAppend(this::publish);
+    }
+
+    /**
+     * Opens a stream of the user's new notes. With {@code lastEventId} the notes after it are
+     * sent first (resume), without it only notes added from now on.
+     *
+     * @throws TooManyStreamsException if the user already has maxPerUser open streams
+     * @throws StreamsBusyException if every sender thread is busy
+     */
+    public SseEmitter subscribe(String username, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(username, emitter, lastEventId == null ? -1 : lastEventId);
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(e -> subscriber.remove());
+
+        // prvo registracija, pa snapshot - ništa između ne može promaknuti
+        AtomicBoolean admitted = new AtomicBoolean();
+        subscribers.compute(username, (u, set) -> {
+            Set<Subscriber> target = set == null ? ConcurrentHashMap.newKeySet() : set;
+            if (target.size() < maxPerUser) {
+                target.add(subscriber);
+                admitted.set(true);
+            }
+            return target.isEmpty() ? null : target;
+        });
+        if (!admitted.get()) {
+            throw new TooManyStreamsException(maxPerUser);
+        }
+        if (lastEventId != null) {
+            subscriber.replay = store.snapshot(username);
+        } else {
+            subscriber.lastSent = store.snapshot(username).size() - 1;
+        }
+        try {
+            subscriber.start();
+        } catch (RejectedExecutionException e) {
+            subscriber.remove();
+            throw new StreamsBusyException();
+        }
+        return emitter;
+    }
+
+    public int subscriberCount(String username) {
+        Set<Subscriber> set = subscribers.get(username);
+        return set == null ? 0 : set.size();
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+        watchdog.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private void dropStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.dropIfStalled(now)));
+    }
+
+    private void publish(String username, Note note) {
+        Set<Subscriber> set = subscribers.get(username);
+        if (set != null) {
+            set.forEach(subscriber -> subscriber.offer(note));
+        }
+    }
+
+    private final class Subscriber {
+
+        private final String username;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Note> queue = new ArrayBlockingQueue<>(bufferSize);
+        // true dok subscribe() ne postavi replay/lastSent - offer do tada samo puni red
+        private final AtomicBoolean scheduled = new AtomicBoolean(true);
+        private volatile boolean overflowed;
+        private volatile boolean stalled;
+        // početak trenutnog send-a, IDLE kad se ništa ne piše
+        private volatile long sendingSince = IDLE;
+        // samo drain thread (jedan po subscriberu) dira ova dva polja nakon subscribe()
+        private long lastSent;
+        private List<String> replay;
+
+        Subscriber(String username, SseEmitter emitter, long lastSent) {
+            this.username = username;
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+
+        void offer(Note note) {
+            if (!queue.offer(note)) {
+                // spori klijent: dobit će što je već u redu i bit će odspojen
+                overflowed = true;
+                remove();
+            }
+            schedule();
+        }
+
+        void start() {
+            senders.execute(this::drain);
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // nema slobodnog sendera; nijedan drain ne drži emitter, pa ga zatvaramo odmah.
+                    // Klijent se vrati s Last-Event-ID i dobije propušteno iz storea.
+                    remove();
+                    emitter.complete();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                if (replay != null) {
+                    replayNextChunk();
+                }
+                // nove bilješke tek kad replay završi, inače bi id-evi išli preko reda
+                Note note;
+                while (replay == null && (note = queue.poll()) != null) {
+                    if (note.id() > lastSent) {
+                        send(note);
+                    }
+                }
+                if (overflowed) {
+                    emitter.complete();
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // klijent je otišao, emitter je već zatvoren ili je send predugo visio
+                remove();
+                if (stalled) {
+                    emitter.completeWithError(e);
+                }
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            if (replay != null || !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void replayNextChunk() throws IOException {
+            int from = (int) Math.max(0, Math.min(replay.size(), lastSent + 1));
+            int to = (int) Math.min(replay.size(), (long) from + bufferSize);
+            for (int id = from; id < to; id++) {
+                send(new Note(id, replay.get(id)));
+            }
+            if (to == replay.size()) {
+                replay = null;
+            }
+        }
+
+        private void send(Note note) throws IOException {
+            sendingSince = System.nanoTime();
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(note.id()))
+                        .name(EVENT_NAME)
+                        .data(note, MediaType.APPLICATION_JSON));
+            } finally {
+                sendingSince = IDLE;
+            }
+            if (stalled) {
+                throw new IOException("SSE send blocked longer than " + TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos) + " ms");
+            }
+            lastSent = note.id();
+        }
+
+        void dropIfStalled(long now) {
+            long since = sendingSince;
+            if (since != IDLE && now - since > sendTimeoutNanos) {
+                // emitter ne diramo odavde - send drži njegov lock; drain ga zatvori kad se vrati
+                stalled = true;
+                remove();
+            }
+        }
+
+        void remove() {
+            subscribers.computeIfPresent(username, (u, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
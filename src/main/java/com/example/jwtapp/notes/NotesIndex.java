@@ -0,0 +1,446 @@
+package com.example.jwtapp.notes;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-user inverted index over notes (GET /api/notes/search).
+ * <p>
+ * Terms are folded to lowercase ASCII (NFD without combining marks, plus đ -> d), so
+ * "Bilješka", "biljeska" and "BILJESKA" are the same term. Each term keeps its postings as one
+ * growing byte[]: varint(note id delta), varint(term frequency) - ids only grow, so deltas
+ * are small and most postings take 2 bytes. The dictionary is sorted, which makes a prefix
+ * query ({@code tok*}) a range scan.
+ * <p>
+ * Query: terms are ANDed, {@code OR} separates alternatives - {@code jwt token OR sesij*}
+ * means (jwt AND token) OR sesij*. Hits are ranked by tf-idf, newer first on ties.
+ * <p>
+ * The index is brought up to date lazily: each search first indexes whatever the owner's
+ * snapshot has beyond it (also notes replayed from the journal at startup). Nothing runs on
+ * the append path, so a long search never holds up POST /api/notes or the SSE publish.
+ */
+@Component
+public class NotesIndex {
+
+    public record Hit(long id, String text, double score) {}
+
+    private final NotesStore store;
+    private final ConcurrentHashMap<String, UserIndex> indexes = new ConcurrentHashMap<>();
+
+    public NotesIndex(NotesStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Top {@code limit} notes of the user matching {@code query}, best first.
+     */
+    public List<Hit> search(String username, String query, int limit) {
+        List<String> snapshot = store.snapshot(username);
+        UserIndex index = indexFor(username);
+        index.catchUp(snapshot);
+        return index.search(parse(query), limit, snapshot);
+    }
+
+    private UserIndex indexFor(String username) {
+        return indexes.computeIfAbsent(username, u -> new UserIndex());
+    }
+
+    /**
+     * Lowercase ASCII-folded terms of the text, in order (duplicates kept).
+     */
+    static List<String> tokenize(String text) {
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean partOfTerm = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (partOfTerm && start < 0) {
+                start = i;
+            } else if (!partOfTerm && start >= 0) {
+                terms.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // lista OR grana, svaka grana je lista AND termova; "tok*" ostaje s zvjezdicom
+    static List<List<String>> parse(String query) {
+        List<List<String>> alternatives = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                if (!current.isEmpty()) {
+                    alternatives.add(current);
+                    current = new ArrayList<>();
+                }
+                continue;
+            }
+            boolean prefix = word.endsWith("*");
+            List<String> terms = tokenize(word);
+            for (int i = 0; i < terms.size(); i++) {
+                current.add(prefix && i == terms.size() - 1 ? terms.get(i) + "*" : terms.get(i));
+            }
+        }
+        if (!current.isEmpty()) {
+            alternatives.add(current);
+        }
+        return alternatives;
+    }
+
+    private static final class UserIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        // broj indeksiranih bilješki = id sljedeće
+        private volatile int indexed;
+
+        void catchUp(List<String> snapshot) {
+            if (indexed >= snapshot.size()) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                for (int id = indexed; id < snapshot.size(); id++) {
+                    Map<String, Integer> frequencies = new HashMap<>();
+                    for (String term : tokenize(snapshot.get(id))) {
+                        frequencies.merge(term, 1, Integer::sum);
+                    }
+                    int noteId = id;
+                    frequencies.forEach((term, tf) -> terms.computeIfAbsent(term, t -> new Postings()).add(noteId, tf));
+                }
+                indexed = snapshot.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Hit> search(List<List<String>> query, int limit, List<String> snapshot) {
+            // min-heap: na vrhu je najslabiji od dosad najboljih
+            PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1);
+            lock.readLock().lock();
+            try {
+                int documents = Math.max(1, indexed);
+                List<Matcher> alternatives = new ArrayList<>();
+                for (List<String> alternative : query) {
+                    List<Matcher> parts = new ArrayList<>();
+                    for (String term : alternative) {
+                        parts.add(lookup(term, documents));
+                    }
+                    alternatives.add(parts.size() == 1 ? parts.get(0) : new Conjunction(parts));
+                }
+                Matcher root = alternatives.size() == 1 ? alternatives.get(0) : new Disjunction(alternatives);
+                // bilješke dodane nakon snapshota ne vraćamo u ovom upitu
+                for (int id = root.advance(0); id < snapshot.size(); id = root.next()) {
+                    best.add(new Candidate(id, root.score()));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            Hit[] hits = new Hit[best.size()];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                Candidate candidate = best.poll();
+                hits[i] = new Hit(candidate.id, snapshot.get(candidate.id), candidate.score);
+            }
+            return List.of(hits);
+        }
+
+        private Matcher lookup(String term, int documents) {
+            if (!term.endsWith("*")) {
+                Postings postings = terms.get(term);
+                return postings == null ? Matcher.NONE : new TermMatcher(postings, documents);
+            }
+            String prefix = term.substring(0, term.length() - 1);
+            List<Matcher> expansions = new ArrayList<>();
+            for (Postings postings : terms.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+                expansions.add(new TermMatcher(postings, documents));
+            }
+            return switch (expansions.size()) {
+                case 0 -> Matcher.NONE;
+                case 1 -> expansions.get(0);
+                default -> new Disjunction(expansions);
+            };
+        }
+    }
+
+    private record Candidate(int id, float score) implements Comparable<Candidate> {
+
+        @Override
+        public int compareTo(Candidate other) {
+            return score != other.score ? Float.compare(score, other.score) : Integer.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Postings of one term: varint(id - previous id), varint(tf), appended in id order.
+     * Every {@value #SKIP_INTERVAL}th posting gets a skip entry (previous id, byte offset), so
+     * a cursor can jump close to a target id instead of decoding everything before it.
+     */
+    private static final class Postings {
+
+        static final int SKIP_INTERVAL = 128;
+
+        private byte[] bytes = new byte[8];
+        private int length;
+        private int count;
+        private int lastId = -1;
+        private int[] skipIds = new int[1];
+        private int[] skipOffsets = new int[1];
+
+        void add(int id, int tf) {
+            if (count % SKIP_INTERVAL == 0) {
+                int block = count / SKIP_INTERVAL;
+                if (block == skipIds.length) {
+                    skipIds = Arrays.copyOf(skipIds, block * 2);
+                    skipOffsets = Arrays.copyOf(skipOffsets, block * 2);
+                }
+                skipIds[block] = lastId;
+                skipOffsets[block] = length;
+            }
+            if (length + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            writeVarint(id - lastId);
+            writeVarint(tf);
+            lastId = id;
+            count++;
+        }
+
+        // zadnji blok čiji je prethodni id < target: svi raniji id-evi su sigurno manji od targeta
+        int blockBefore(int target, int blocks) {
+            int low = 0;
+            int high = blocks - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (skipIds[mid] < target) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+    }
+
+    /**
+     * Iterator over matching note ids in ascending order. Starts before the first id;
+     * {@link #advance} moves to the first id >= target, or {@link #END} when exhausted.
+     */
+    private abstract static class Matcher {
+
+        static final int END = Integer.MAX_VALUE;
+
+        static final Matcher NONE = new Matcher() {
+            @Override
+            int advance(int target) {
+                return END;
+            }
+
+            @Override
+            float score() {
+                return 0;
+            }
+
+            @Override
+            int cost() {
+                return 0;
+            }
+        };
+
+        int id = -1;
+
+        abstract int advance(int target);
+
+        abstract float score();
+
+        // gornja granica broja pogodaka - AND kreće od najjeftinijeg
+        abstract int cost();
+
+        int next() {
+            return advance(id + 1);
+        }
+    }
+
+    /**
+     * Decodes one term's postings in place - nothing is copied out of the byte[].
+     */
+    private static final class TermMatcher extends Matcher {
+
+        private final Postings postings;
+        private final byte[] bytes;
+        private final int count;
+        private final double idf;
+        private int read;
+        private int position;
+        private int tf;
+
+        TermMatcher(Postings postings, int documents) {
+            // pod read lockom: ono što je sad dodano se više ne mijenja
+            this.postings = postings;
+            this.bytes = postings.bytes;
+            this.count = postings.count;
+            this.idf = Math.log(1.0 + (double) documents / count);
+        }
+
+        @Override
+        int advance(int target) {
+            if (id >= target) {
+                return id;
+            }
+            int blocks = (count + Postings.SKIP_INTERVAL - 1) / Postings.SKIP_INTERVAL;
+            int block = postings.blockBefore(target, blocks);
+            if (block * Postings.SKIP_INTERVAL > read) {
+                read = block * Postings.SKIP_INTERVAL;
+                position = postings.skipOffsets[block];
+                id = postings.skipIds[block];
+            }
+            while (id < target) {
+                if (read == count) {
+                    return id = END;
+                }
+                id += readVarint();
+                tf = readVarint();
+                read++;
+            }
+            return id;
+        }
+
+        @Override
+        float score() {
+            return (float) ((1 + Math.log(tf)) * idf);
+        }
+
+        @Override
+        int cost() {
+            return count;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * AND: the rarest part leads, the others only skip to its candidates.
+     */
+    private static final class Conjunction extends Matcher {
+
+        private final Matcher[] parts;
+
+        Conjunction(List<Matcher> parts) {
+            this.parts = parts.toArray(new Matcher[0]);
+            Arrays.sort(this.parts, (a, b) -> Integer.compare(a.cost(), b.cost()));
+        }
+
+        @Override
+        int advance(int target) {
+            int candidate = parts[0].advance(target);
+            search:
+            while (candidate != END) {
+                for (int i = 1; i < parts.length; i++) {
+                    int found = parts[i].advance(candidate);
+                    if (found > candidate) {
+                        candidate = parts[0].advance(found);
+                        continue search;
+                    }
+                }
+                return id = candidate;
+            }
+            return id = END;
+        }
+
+        @Override
+        float score() {
+            float sum = 0;
+            for (Matcher part : parts) {
+                sum += part.score();
+            }
+            return sum;
+        }
+
+        @Override
+        int cost() {
+            return parts[0].cost();
+        }
+    }
+
+    /**
+     * OR (alternatives, prefix expansions): k-way merge of the parts on a heap ordered by
+     * current id. A note matched by several parts scores as its best part.
+     */
+    private static final class Disjunction extends Matcher {
+
+        private final PriorityQueue<Matcher> heap;
+        private final int cost;
+
+        Disjunction(List<Matcher> parts) {
+            this.heap = new PriorityQueue<>(parts.size(), (a, b) -> Integer.compare(a.id, b.id));
+            this.heap.addAll(parts);
+            this.cost = parts.stream().mapToInt(Matcher::cost).sum();
+        }
+
+        @Override
+        int advance(int target) {
+            while (!heap.isEmpty() && heap.peek().id < target) {
+                Matcher part = heap.poll();
+                if (part.advance(target) != END) {
+                    heap.add(part);
+                }
+            }
+            return id = heap.isEmpty() ? END : heap.peek().id;
+        }
+
+        @Override
+        float score() {
+            // dijelovi na trenutnom id-u su na vrhu heapa
+            float best = 0;
+            List<Matcher> current = new ArrayList<>();
+            while (!heap.isEmpty() && heap.peek().id == id) {
+                Matcher part = heap.poll();
+                best = Math.max(best, part.score());
+                current.add(part);
+            }
+            heap.addAll(current);
+            return best;
+        }
+
+        @Override
+        int cost() {
+            return cost;
+        }
+    }
+}
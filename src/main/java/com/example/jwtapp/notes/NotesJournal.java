@@ -0,0 +1,451 @@
+package com.example.jwtapp.notes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opt-in write-behind journal for notes (app.notes.journal.dir, empty = notes live only in memory).
+ * <p>
+ * Appends are copied into a memory-mapped segment file and return at once; a background thread
+ * fsyncs whatever was written in the last flushMillis in one go (group commit). A process crash
+ * loses nothing (the pages belong to the OS), a power loss at most the last flushMillis.
+ * <pre>
+ * segment:  [magic int][first covered segment long] record*
+ * record:   [payload length int][CRC32C of payload int][user length int][user utf8][note utf8]
+ * </pre>
+ * A full segment is closed and a new one mapped. Closed segments are preallocated and mostly
+ * zero at the tail; once compactAfterSegments of them follow the last sealed file they are
+ * rewritten into one trimmed file. Its header says which segments it replaces, so a crash
+ * halfway through the compaction never replays a record twice. A merged file never grows past
+ * maxCompactedBytes, and one that reached half of it is sealed - it is not rewritten again, so
+ * old history isn't copied over and over.
+ * <p>
+ * On startup every segment is replayed in order; the first record that is torn or fails its
+ * checksum ends that segment. Segments are read through windows of at most 64 MiB, not one
+ * mapping per file (map() can't go past 2 GiB). Compaction only starts once
+ * the replay is done - before that it would delete or replace files the replay still reads.
+ */
+@Component
+public class NotesJournal implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(NotesJournal.class);
+
+    static final int MAGIC = 0x4E4A4C31;
+    static final int SEGMENT_HEADER_BYTES = 12;
+    static final int RECORD_HEADER_BYTES = 8;
+    static final int READ_WINDOW_BYTES = 64 << 20;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("notes-(\\d{10})\\.log");
+    private static final String GENERATION_FILE = "generation";
+
+    // null kad je journal isključen
+    private final Path dir;
+    private final int segmentBytes;
+    private final int compactAfterSegments;
+    private final long maxCompactedBytes;
+    private final ScheduledExecutorService flusher;
+    // null kad je journal isključen
+    private final String generation;
+
+    private final Object lock = new Object();
+    // zatvoreni segmenti po redu; roll dodaje na kraj, kompakcija mijenja početak
+    private final List<Path> closedSegments = new ArrayList<>();
+    private long currentSeq;
+    private FileChannel currentChannel;
+    private MappedByteBuffer current;
+    private volatile boolean dirty;
+    // kompakcija čeka da replay pročita sve segmente
+    private volatile boolean replayed;
+
+    @Autowired
+    public NotesJournal(
+            @Value("${app.notes.journal.dir:}") String dir,
+            @Value("${app.notes.journal.segmentBytes:67108864}") int segmentBytes,
+            @Value("${app.notes.journal.flushMillis:10}") long flushMillis,
+            @Value("${app.notes.journal.compactAfterSegments:4}") int compactAfterSegments,
+            @Value("${app.notes.journal.maxCompactedBytes:1073741824}") long maxCompactedBytes
+    ) throws IOException {
+        this.segmentBytes = segmentBytes;
+        this.compactAfterSegments = Math.max(2, compactAfterSegments);
+        this.maxCompactedBytes = maxCompactedBytes;
+        if (dir.isBlank()) {
+            this.dir = null;
+            this.flusher = null;
+            this.generation = null;
+            return;
+        }
+        this.dir = Files.createDirectories(Path.of(dir));
+        this.generation = loadGeneration(this.dir);
+        closedSegments.addAll(existingSegments());
+        currentSeq = closedSegments.isEmpty() ? 1 : seqOf(closedSegments.get(closedSegments.size() - 1)) + 1;
+        openSegment(currentSeq);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notes-journal-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushMillis, Math.max(1, flushMillis), TimeUnit.MILLISECONDS);
+    }
+
+    public NotesJournal(String dir, int segmentBytes, long flushMillis, int compactAfterSegments) throws IOException {
+        this(dir, segmentBytes, flushMillis, compactAfterSegments, 1L << 30);
+    }
+
+    public static NotesJournal disabled() {
+        try {
+            return new NotesJournal("", 0, 0, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    /**
+     * Random id of this journal directory, written when it is first used. It stays the same
+     * across restarts and changes when the directory is wiped. Null when the journal is off.
+     */
+    public String generation() {
+        return generation;
+    }
+
+    /**
+     * Feeds every journaled note, oldest first, to {@code target}. Called once, before the first append.
+     */
+    public void replay(BiConsumer<String, String> target) {
+        if (dir == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        long[] count = {0};
+        List<Path> segments;
+        synchronized (lock) {
+            segments = List.copyOf(closedSegments);
+        }
+        for (Path segment : segments) {
+            forEachRecord(segment, record -> {
+                int userLength = record.getInt(RECORD_HEADER_BYTES);
+                byte[] user = new byte[userLength];
+                byte[] note = new byte[record.remaining() - RECORD_HEADER_BYTES - 4 - userLength];
+                record.position(RECORD_HEADER_BYTES + 4);
+                record.get(user).get(note);
+                target.accept(new String(user, StandardCharsets.UTF_8), new String(note, StandardCharsets.UTF_8));
+                count[0]++;
+            });
+        }
+        log.info("Notes journal: replayed {} notes from {} segments in {} ms",
+                count[0], segments.size(), (System.nanoTime() - start) / 1_000_000);
+        replayed = true;
+        flusher.execute(this::compactIfNeeded);
+    }
+
+    /**
+     * Journals one note. Returns once it is in the mapped segment; the fsync follows within flushMillis.
+     */
+    public void append(String username, String note) {
+        if (dir == null) {
+            return;
+        }
+        byte[] user = username.getBytes(StandardCharsets.UTF_8);
+        byte[] text = note.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(4 + user.length + text.length);
+        payload.putInt(user.length).put(user).put(text);
+        CRC32C crc = new CRC32C();
+        crc.update(payload.array());
+
+        int recordBytes = RECORD_HEADER_BYTES + payload.capacity();
+        if (SEGMENT_HEADER_BYTES + recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Note is larger than a journal segment (" + segmentBytes + " bytes)");
+        }
+        synchronized (lock) {
+            if (current.remaining() < recordBytes) {
+                roll();
+            }
+            current.putInt(payload.capacity()).putInt((int) crc.getValue()).put(payload.array());
+        }
+        dirty = true;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (dir == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        synchronized (lock) {
+            current.force();
+            currentChannel.close();
+        }
+    }
+
+    private void flush() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        MappedByteBuffer segment;
+        synchronized (lock) {
+            segment = current;
+        }
+        // force() izvan locka - pisci za to vrijeme nastavljaju
+        segment.force();
+    }
+
+    // pod lockom
+    private void roll() {
+        MappedByteBuffer full = current;
+        FileChannel fullChannel = currentChannel;
+        closedSegments.add(segmentPath(currentSeq));
+        try {
+            openSegment(currentSeq + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll notes journal segment", e);
+        }
+        flusher.execute(() -> {
+            full.force();
+            try {
+                fullChannel.close();
+            } catch (IOException e) {
+                log.warn("Notes journal: closing segment failed", e);
+            }
+            compactIfNeeded();
+        });
+    }
+
+    private void openSegment(long seq) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(seq),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segment.putInt(MAGIC).putLong(seq);
+        currentSeq = seq;
+        currentChannel = channel;
+        current = segment;
+    }
+
+    // samo na flusher threadu
+    private void compactIfNeeded() {
+        if (!replayed) {
+            return;
+        }
+        List<Path> segments;
+        try {
+            segments = nextCompaction();
+        } catch (IOException e) {
+            log.warn("Notes journal: could not size segments for compaction", e);
+            return;
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        Path tmp = last.resolveSibling(last.getFileName() + ".compact");
+        try {
+            long[] written = {0};
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+                header.putInt(MAGIC).putLong(firstCoveredOf(segments.get(0))).flip();
+                out.write(header);
+                for (Path segment : segments) {
+                    forEachRecord(segment, record -> {
+                        try {
+                            while (record.hasRemaining()) {
+                                written[0] += out.write(record);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+                out.force(true);
+            }
+            // nakon ovog movea stari segmenti su višak - i ako ih ne stignemo obrisati, header ih pokriva
+            Files.move(tmp, last, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (Path segment : segments.subList(0, segments.size() - 1)) {
+                Files.deleteIfExists(segment);
+            }
+            synchronized (lock) {
+                int from = closedSegments.indexOf(segments.get(0));
+                closedSegments.subList(from, from + segments.size()).clear();
+                closedSegments.add(from, last);
+            }
+            log.info("Notes journal: compacted {} segments into {} ({} bytes)", segments.size(), last.getFileName(), written[0]);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Notes journal: compaction failed, keeping segments as they are", e);
+        }
+    }
+
+    /**
+     * Segments to merge next: closed segments after the last sealed one, once there are
+     * compactAfterSegments of them, as many from the oldest as fit in maxCompactedBytes.
+     * Empty when there is nothing worth merging.
+     */
+    private List<Path> nextCompaction() throws IOException {
+        List<Path> closed;
+        synchronized (lock) {
+            closed = List.copyOf(closedSegments);
+        }
+        int from = closed.size();
+        while (from > 0 && Files.size(closed.get(from - 1)) < maxCompactedBytes / 2) {
+            from--;
+        }
+        if (closed.size() - from < compactAfterSegments) {
+            return List.of();
+        }
+        long total = SEGMENT_HEADER_BYTES;
+        int to = from;
+        while (to < closed.size() && total + Files.size(closed.get(to)) <= maxCompactedBytes) {
+            total += Files.size(closed.get(to++));
+        }
+        return to - from < 2 ? List.of() : closed.subList(from, to);
+    }
+
+    /**
+     * Valid segments in replay order. Leftovers of an interrupted compaction are removed here.
+     */
+    private List<Path> existingSegments() throws IOException {
+        TreeMap<Long, Path> bySeq = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                Matcher m = SEGMENT_NAME.matcher(name);
+                if (m.matches()) {
+                    bySeq.put(Long.parseLong(m.group(1)), file);
+                } else if (name.endsWith(".log.compact")) {
+                    Files.delete(file);
+                }
+            }
+        }
+        // kompaktirani segment pokriva sve od svog headera do sebe
+        for (Long seq : List.copyOf(bySeq.descendingKeySet())) {
+            Path segment = bySeq.get(seq);
+            if (segment == null) {
+                continue;
+            }
+            long firstCovered = firstCoveredOf(segment);
+            if (firstCovered < 0) {
+                log.warn("Notes journal: {} has no valid header, skipping it", segment.getFileName());
+                bySeq.remove(seq);
+                continue;
+            }
+            for (Path covered : List.copyOf(bySeq.subMap(firstCovered, seq).values())) {
+                Files.deleteIfExists(covered);
+            }
+            bySeq.subMap(firstCovered, seq).clear();
+        }
+        return new ArrayList<>(bySeq.values());
+    }
+
+    /**
+     * Calls {@code visitor} with each intact record (header included) until the end, a zero
+     * length (preallocated tail) or the first torn/corrupt record.
+     */
+    private static void forEachRecord(Path segment, Consumer<ByteBuffer> visitor) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = SEGMENT_HEADER_BYTES;
+            long windowStart = 0;
+            MappedByteBuffer window = null;
+            while (position + RECORD_HEADER_BYTES <= size) {
+                if (window == null || position + RECORD_HEADER_BYTES > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = map(channel, windowStart, RECORD_HEADER_BYTES, size);
+                }
+                int at = (int) (position - windowStart);
+                int length = window.getInt(at);
+                if (length < 4 || position + RECORD_HEADER_BYTES + length > size) {
+                    break;
+                }
+                if (at + RECORD_HEADER_BYTES + length > window.limit()) {
+                    // zapis prelazi granicu prozora - novi prozor kreće od njega
+                    windowStart = position;
+                    window = map(channel, windowStart, RECORD_HEADER_BYTES + length, size);
+                    at = 0;
+                }
+                ByteBuffer payload = window.slice(at + RECORD_HEADER_BYTES, length);
+                CRC32C crc = new CRC32C();
+                crc.update(payload);
+                if ((int) crc.getValue() != window.getInt(at + 4)) {
+                    log.warn("Notes journal: checksum mismatch in {} at offset {}, ignoring the rest of it",
+                            segment.getFileName(), position);
+                    break;
+                }
+                visitor.accept(window.slice(at, RECORD_HEADER_BYTES + length));
+                position += RECORD_HEADER_BYTES + length;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read notes journal segment " + segment, e);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long start, int atLeast, long size) throws IOException {
+        long length = Math.min(size - start, Math.max(READ_WINDOW_BYTES, atLeast));
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    }
+
+    // -1 kad header nije ispravan
+    private static long firstCoveredOf(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // čitaj do kraja headera
+            }
+            header.flip();
+            return header.remaining() == SEGMENT_HEADER_BYTES && header.getInt() == MAGIC ? header.getLong() : -1;
+        }
+    }
+
+    private static String loadGeneration(Path dir) throws IOException {
+        Path file = dir.resolve(GENERATION_FILE);
+        if (Files.exists(file)) {
+            return Files.readString(file, StandardCharsets.UTF_8).trim();
+        }
+        String generation = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+        Files.writeString(file, generation, StandardCharsets.UTF_8);
+        return generation;
+    }
+
+    private Path segmentPath(long seq) {
+        return dir.resolve(String.format("notes-%010d.log", seq));
+    }
+
+    private static long seqOf(Path segment) {
+        Matcher m = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!m.matches()) {
+            throw new IllegalStateException("Not a journal segment: " + segment);
+        }
+        return Long.parseLong(m.group(1));
+    }
+}
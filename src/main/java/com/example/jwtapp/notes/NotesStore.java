@@ -0,0 +1,280 @@
+package com.example.jwtapp.notes;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.HexFormat;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory notes, partitioned per user.
+ * <p>
+ * Each user's notes live in fixed-size chunks that are only ever appended to - an existing
+ * chunk is never copied, so an append costs the same with 10 notes or 10 million. Writers to
+ * the same user take that user's lock; different users never contend.
+ * <p>
+ * Readers don't lock: a partition publishes its size through a volatile write after the note
+ * is in place, so a reader that reads the size sees every note below it. {@link #snapshot}
+ * returns exactly that prefix and does not change if more notes are appended later.
+ * <p>
+ * With {@link NotesJournal} enabled every append is journaled first, and the journal is
+ * replayed here on startup, so ids survive a restart.
+ * <p>
+ * Storage (app.notes.storage): {@code heap} keeps a String per note. {@code offheap} keeps
+ * note bodies UTF-8 encoded in direct ByteBuffer slabs ({@link NoteArena}) and only one long
+ * per note on the heap; a String is decoded when the note is read, e.g. while a response
+ * is being written.
+ */
+@Component
+public class NotesStore {
+
+    static final int CHUNK_SIZE = 1024;
+
+    // svaki novi korisnik dobije ove dvije za početak
+    static final List<String> WELCOME_NOTES = List.of(
+            "Prva bilješka: 'Ne vjeruj tokenu koji traje vječno.'",
+            "Druga bilješka: 'Stateless je zen, ali i odgovornost.'"
+    );
+
+    private final ConcurrentHashMap<String, Partition<?>> partitions = new ConcurrentHashMap<>();
+    private final NotesJournal journal;
+    private final String epoch;
+    private final List<BiConsumer<String, Note>> listeners = new CopyOnWriteArrayList<>();
+    // null za heap; inače nekoliko areni da se pisci različitih korisnika ne sudaraju
+    private final NoteArena[] arenas;
+
+    @Autowired
+    public NotesStore(
+            NotesJournal journal,
+            @Value("${app.notes.storage:heap}") String storage,
+            @Value("${app.notes.offheap.slabBytes:1048576}") int slabBytes
+    ) {
+        this.journal = journal;
+        // bez journala se bilješke gube pri restartu, pa je svaki start nova epoha
+        this.epoch = journal.isEnabled()
+                ? journal.generation()
+                : HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+        this.arenas = switch (storage) {
+            case "heap" -> null;
+            case "offheap" -> {
+                NoteArena[] stripes = new NoteArena[Runtime.getRuntime().availableProcessors()];
+                for (int i = 0; i < stripes.length; i++) {
+                    stripes[i] = new NoteArena(slabBytes);
+                }
+                yield stripes;
+            }
+            default -> throw new IllegalArgumentException("app.notes.storage must be heap or offheap, got " + storage);
+        };
+        journal.replay((username, note) -> partition(username).append(note));
+    }
+
+    public NotesStore(NotesJournal journal) {
+        this(journal, "heap", 0);
+    }
+
+    public NotesStore() {
+        this(NotesJournal.disabled());
+    }
+
+    /**
+     * Appends a note for the user. The returned id is its position (0-based) in that user's list.
+     */
+    public Note append(String username, String note) {
+        Partition<?> partition = partition(username);
+        // journal pod istim lockom - redoslijed u journalu = redoslijed id-eva
+        synchronized (partition.writeLock) {
+            journal.append(username, note);
+            Note stored = new Note(partition.append(note), note);
+            listeners.forEach(listener -> listener.accept(username, stored));
+            return stored;
+        }
+    }
+
+    /**
+     * Registers a callback for every new note. It runs under the owner's lock, in id order,
+     * so it has to be quick and must not block.
+     */
+    public void onAppend(BiConsumer<String, Note> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Immutable view of the user's notes as of this call. Notes are only ever appended, so its
+     * size doubles as the user's version.
+     */
+    public List<String> snapshot(String username) {
+        return partition(username).snapshot();
+    }
+
+    /**
+     * Up to {@code limit} notes of a snapshot with id greater than {@code afterId} (-1 = from the start).
+     * A view over the snapshot - nothing is copied.
+     */
+    public static List<String> page(List<String> snapshot, long afterId, int limit) {
+        int from = (int) Math.min(snapshot.size(), firstIdAfter(afterId));
+        return snapshot.subList(from, (int) Math.min(snapshot.size(), (long) from + limit));
+    }
+
+    /**
+     * First id after the cursor; {@code Long.MAX_VALUE} stays put instead of wrapping to the start.
+     */
+    public static long firstIdAfter(long afterId) {
+        return afterId == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, afterId + 1);
+    }
+
+    /**
+     * Identifies the history that sizes count in. Snapshot sizes are versions only within one
+     * epoch: without the journal every restart starts the users over at the welcome notes, so
+     * the epoch changes per boot; with it, it is the journal's generation.
+     */
+    public String epoch() {
+        return epoch;
+    }
+
+    public int size(String username) {
+        return partition(username).size;
+    }
+
+    /**
+     * Off-heap bytes taken by note bodies (0 for heap storage).
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        if (arenas != null) {
+            for (NoteArena arena : arenas) {
+                bytes += arena.allocatedBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private Partition<?> partition(String username) {
+        return partitions.computeIfAbsent(username, u -> {
+            Partition<?> partition = arenas == null
+                    ? new HeapPartition()
+                    : new OffHeapPartition(arenas[Math.floorMod(u.hashCode(), arenas.length)]);
+            WELCOME_NOTES.forEach(partition::append);
+            return partition;
+        });
+    }
+
+    /**
+     * Chunked append-only list; subclasses decide what one chunk holds.
+     */
+    private abstract static class Partition<C> {
+
+        final Object writeLock = new Object();
+        // direktorij chunkova: pri rastu se kopiraju samo reference, nikad sami chunkovi
+        private volatile Object[] chunks = new Object[4];
+        volatile int size;
+
+        abstract C newChunk();
+
+        abstract void store(C chunk, int slot, String note);
+
+        abstract String load(C chunk, int slot);
+
+        @SuppressWarnings("unchecked")
+        int append(String note) {
+            synchronized (writeLock) {
+                int index = size;
+                int chunk = index / CHUNK_SIZE;
+                Object[] directory = chunks;
+                if (chunk == directory.length) {
+                    directory = Arrays.copyOf(directory, directory.length * 2);
+                }
+                if (directory[chunk] == null) {
+                    directory[chunk] = newChunk();
+                }
+                store((C) directory[chunk], index % CHUNK_SIZE, note);
+                chunks = directory;
+                // objava: tek nakon ovog zapisa čitači vide novu bilješku
+                size = index + 1;
+                return index;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String> snapshot() {
+            int n = size;
+            Object[] directory = chunks;
+            return new Snapshot(n, index -> load((C) directory[index / CHUNK_SIZE], index % CHUNK_SIZE));
+        }
+    }
+
+    private static final class HeapPartition extends Partition<String[]> {
+
+        @Override
+        String[] newChunk() {
+            return new String[CHUNK_SIZE];
+        }
+
+        @Override
+        void store(String[] chunk, int slot, String note) {
+            chunk[slot] = note;
+        }
+
+        @Override
+        String load(String[] chunk, int slot) {
+            return chunk[slot];
+        }
+    }
+
+    // na heapu ostaje samo adresa bilješke u areni
+    private static final class OffHeapPartition extends Partition<long[]> {
+
+        private final NoteArena arena;
+
+        OffHeapPartition(NoteArena arena) {
+            this.arena = arena;
+        }
+
+        @Override
+        long[] newChunk() {
+            return new long[CHUNK_SIZE];
+        }
+
+        @Override
+        void store(long[] chunk, int slot, String note) {
+            chunk[slot] = arena.write(note);
+        }
+
+        @Override
+        String load(long[] chunk, int slot) {
+            return arena.read(chunk[slot]);
+        }
+    }
+
+    private static final class Snapshot extends AbstractList<String> implements RandomAccess {
+
+        private final int size;
+        private final IntFunction<String> loader;
+
+        Snapshot(int size, IntFunction<String> loader) {
+            this.size = size;
+            this.loader = loader;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return loader.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
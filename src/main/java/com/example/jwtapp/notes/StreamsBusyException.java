@@ -0,0 +1,8 @@
+package com.example.jwtapp.notes;
+
+public class StreamsBusyException extends RuntimeException {
+
+    public StreamsBusyException() {
+        super("Svi SSE senderi su zauzeti - pokušaj ponovno malo kasnije.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.jwtapp.notes;
+
+public class TooManyStreamsException extends RuntimeException {
+
+    public TooManyStreamsException(int maxPerUser) {
+        super("Već imaš " + maxPerUser + " otvorenih streamova - zatvori neki prije novog.");
+    }
+}
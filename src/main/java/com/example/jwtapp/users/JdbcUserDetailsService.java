@@ -0,0 +1,136 @@
+package com.example.jwtapp.users;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import com.example.jwtapp.auth.CredentialVerificationCache;
+import com.example.jwtapp.cache.BoundedCache;
+
+/**
+ * User store over app_users / app_roles / app_user_roles (schema.sql).
+ * <p>
+ * One indexed query per miss (unique index on username, roles joined in), then a bounded
+ * read-through cache with a TTL. The cache holds an immutable snapshot and every call builds
+ * a fresh {@link User}: Spring Security erases the password on the returned object after
+ * login, so handing out a shared instance would break the next login.
+ * <p>
+ * Unknown usernames are not cached - otherwise random login attempts could push real users out.
+ */
+@Service
+public class JdbcUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final String SELECT_USER = """
+            SELECT u.username, u.password, u.enabled, u.locked, r.name AS role
+            FROM app_users u
+            LEFT JOIN app_user_roles ur ON ur.user_id = u.id
+            LEFT JOIN app_roles r ON r.id = ur.role_id
+            WHERE u.username = ?
+            """;
+
+    private record StoredUser(
+            String username,
+            String password,
+            boolean enabled,
+            boolean locked,
+            List<GrantedAuthority> authorities
+    ) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BoundedCache<String, StoredUser> cache;
+    private final long ttlMillis;
+    private final CredentialVerificationCache credentialCache;
+
+    public JdbcUserDetailsService(
+            JdbcTemplate jdbcTemplate,
+            CredentialVerificationCache credentialCache,
+            @Value("${app.users.cache.maxSize:10000}") int maxSize,
+            @Value("${app.users.cache.ttlSeconds:60}") long ttlSeconds
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = new BoundedCache<>(maxSize);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.credentialCache = credentialCache;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) {
+        StoredUser stored = cache.get(username);
+        if (stored == null) {
+            stored = query(username);
+            if (stored == null) {
+                throw new UsernameNotFoundException("User not found: " + username);
+            }
+            cache.put(username, stored, System.currentTimeMillis() + ttlMillis);
+        }
+        return toUserDetails(stored);
+    }
+
+    /**
+     * Called by DaoAuthenticationProvider after a successful login when the stored hash
+     * uses an older cost (see BCryptCalibration).
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        jdbcTemplate.update("UPDATE app_users SET password = ? WHERE username = ?", newPassword, user.getUsername());
+        invalidate(user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    /**
+     * Call after changing a user's row (roles, lock, password) outside this class.
+     * Also drops the user's remembered password check, so the next login pays full BCrypt.
+     */
+    public void invalidate(String username) {
+        cache.invalidate(username);
+        credentialCache.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        credentialCache.invalidateAll();
+    }
+
+    public BoundedCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    private StoredUser query(String username) {
+        return jdbcTemplate.query(SELECT_USER, rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            String name = rs.getString("username");
+            String password = rs.getString("password");
+            boolean enabled = rs.getBoolean("enabled");
+            boolean locked = rs.getBoolean("locked");
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            do {
+                String role = rs.getString("role");
+                if (role != null) {
+                    authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+                }
+            } while (rs.next());
+            return new StoredUser(name, password, enabled, locked, List.copyOf(authorities));
+        }, username);
+    }
+
+    private static UserDetails toUserDetails(StoredUser stored) {
+        return User.withUsername(stored.username())
+                .password(stored.password())
+                .authorities(stored.authorities())
+                .disabled(!stored.enabled())
+                .accountLocked(stored.locked())
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.jwtapp.users;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.example.jwtapp.auth.CredentialVerificationCache;
+import com.example.jwtapp.cache.BoundedCache;
+
+/**
+ * User cache operations (ROLE_ADMIN only) - e.g. after locking a user directly in the database.
+ * Invalidating a user also drops their remembered password check.
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+public class UserAdminController {
+
+    private final JdbcUserDetailsService users;
+    private final CredentialVerificationCache credentialCache;
+
+    public UserAdminController(JdbcUserDetailsService users, CredentialVerificationCache credentialCache) {
+        this.users = users;
+        this.credentialCache = credentialCache;
+    }
+
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> cacheStats() {
+        return toMap(users.cacheStats());
+    }
+
+    @GetMapping("/credential-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> credentialCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", credentialCache.isEnabled());
+        stats.putAll(toMap(credentialCache.stats()));
+        return stats;
+    }
+
+    @DeleteMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> invalidateAll() {
+        users.invalidateAll();
+        return Map.of("invalidated", "all");
+    }
+
+    @DeleteMapping("/cache/{username}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> invalidate(@PathVariable String username) {
+        users.invalidate(username);
+        return Map.of("invalidated", username);
+    }
+
+    private static Map<String, Object> toMap(BoundedCache.Stats stats) {
+        return Map.of(
+                "hits", stats.hits(),
+                "misses", stats.misses(),
+                "evictions", stats.evictions(),
+                "size", stats.size(),
+                "maxSize", stats.maxSize(),
+                "hitRatio", stats.hitRatio()
+        );
+    }
+}
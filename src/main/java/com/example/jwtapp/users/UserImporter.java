@@ -0,0 +1,271 @@
+package com.example.jwtapp.users;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk user import from CSV or JSONL (app.users.import.file, runs once at startup).
+ * <pre>
+ * users.csv:    username,password,roles        roles separated by '|', e.g. USER|ADMIN
+ * users.jsonl:  {"username":"ana","password":"...","roles":["USER"]}
+ * </pre>
+ * CSV fields may be quoted the usual way ({@code "a,b"}, {@code ""} for a quote). A line with
+ * more fields than the header (or three, without a header) is rejected rather than guessed
+ * at - a password with a comma has to be quoted.
+ * A password that is already a BCrypt hash ({@code $2a$...} or {@code {bcrypt}$2a$...}) is
+ * stored as is. Plaintext is hashed on a ForkJoinPool, one batch at a time, while the previous
+ * batch is being written - so hashing uses all cores and the inserts hide behind it.
+ * Existing usernames are updated (password + added roles), so a re-run is harmless.
+ */
+@Component
+public class UserImporter implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImporter.class);
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^(\\{bcrypt})?\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    public record ImportResult(int users, int hashed, long millis) {
+
+        public double usersPerSecond() {
+            return millis == 0 ? users : users * 1000.0 / millis;
+        }
+    }
+
+    private record ImportRow(String username, String password, List<String> roles) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcUserDetailsService users;
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final String file;
+    private final int batchSize;
+    private final ForkJoinPool hashingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    public UserImporter(
+            JdbcTemplate jdbcTemplate,
+            PasswordEncoder passwordEncoder,
+            JdbcUserDetailsService users,
+            ResourceLoader resourceLoader,
+            ObjectMapper objectMapper,
+            @Value("${app.users.import.file:}") String file,
+            @Value("${app.users.import.batchSize:1000}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.users = users;
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!file.isBlank()) {
+            importFrom(resourceLoader.getResource(file));
+        }
+    }
+
+    public ImportResult importFrom(Resource resource) throws IOException {
+        boolean jsonl = resource.getFilename() != null
+                && (resource.getFilename().endsWith(".jsonl") || resource.getFilename().endsWith(".ndjson"));
+        long start = System.nanoTime();
+        int imported = 0;
+        int hashed = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            CompletableFuture<List<ImportRow>> pending = null;
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            String line;
+            int lineNumber = 0;
+            // bez headera: username,password,roles
+            int csvColumns = 3;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!jsonl && lineNumber == 1 && line.startsWith("username,")) {
+                    csvColumns = splitCsv(line, lineNumber).size();
+                    continue;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                ImportRow row = jsonl ? parseJson(line, lineNumber) : parseCsv(line, lineNumber, csvColumns);
+                if (!isHash(row.password())) {
+                    hashed++;
+                }
+                batch.add(row);
+
+                if (batch.size() == batchSize) {
+                    // sljedeći batch se hashira dok se prethodni upisuje
+                    CompletableFuture<List<ImportRow>> next = hashAsync(batch);
+                    if (pending != null) {
+                        imported += write(pending.join());
+                        logProgress(imported, start);
+                    }
+                    pending = next;
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+
+            if (pending != null) {
+                imported += write(pending.join());
+            }
+            if (!batch.isEmpty()) {
+                imported += write(hashAsync(batch).join());
+            }
+        } finally {
+            // upsert je mogao promijeniti lozinku/role korisnika koji je već u cacheu
+            users.invalidateAll();
+        }
+
+        ImportResult result = new ImportResult(imported, hashed, (System.nanoTime() - start) / 1_000_000);
+        log.info("User import from {}: {} users ({} hashed here) in {} ms, {} users/s",
+                resource.getDescription(), result.users(), result.hashed(), result.millis(),
+                Math.round(result.usersPerSecond()));
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        hashingPool.shutdownNow();
+    }
+
+    private CompletableFuture<List<ImportRow>> hashAsync(List<ImportRow> batch) {
+        return CompletableFuture.supplyAsync(() -> batch.parallelStream()
+                .map(row -> isHash(row.password())
+                        ? row
+                        : new ImportRow(row.username(), passwordEncoder.encode(row.password()), row.roles()))
+                .toList(), hashingPool);
+    }
+
+    private int write(List<ImportRow> rows) {
+        Set<String> roles = new LinkedHashSet<>();
+        List<Object[]> userArgs = new ArrayList<>(rows.size());
+        List<Object[]> roleArgs = new ArrayList<>();
+        for (ImportRow row : rows) {
+            userArgs.add(new Object[] {row.username(), row.password()});
+            for (String role : row.roles()) {
+                roles.add(role);
+                roleArgs.add(new Object[] {row.username(), role});
+            }
+        }
+
+        jdbcTemplate.batchUpdate("MERGE INTO app_roles (name) KEY (name) VALUES (?)",
+                roles.stream().map(role -> new Object[] {role}).toList());
+        jdbcTemplate.batchUpdate("MERGE INTO app_users (username, password) KEY (username) VALUES (?, ?)", userArgs);
+        jdbcTemplate.batchUpdate("""
+                MERGE INTO app_user_roles (user_id, role_id) KEY (user_id, role_id)
+                SELECT u.id, r.id FROM app_users u, app_roles r WHERE u.username = ? AND r.name = ?
+                """, roleArgs);
+        return rows.size();
+    }
+
+    private void logProgress(int imported, long startNanos) {
+        long millis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("User import: {} users so far, {} users/s", imported, imported * 1000L / millis);
+    }
+
+    private static boolean isHash(String password) {
+        return BCRYPT_HASH.matcher(password).matches();
+    }
+
+    // username,password,roles - lozinka smije sadržavati zarez, username i role ne
+    private static ImportRow parseCsv(String line, int lineNumber, int columns) {
+        List<String> fields = splitCsv(line, lineNumber);
+        if (fields.size() < 2 || fields.size() > Math.min(3, columns)) {
+            throw invalid(lineNumber, "expected username,password[,roles] - quote a password that contains a comma");
+        }
+        String roles = fields.size() == 3 ? fields.get(2) : "";
+        return row(fields.get(0).trim(), fields.get(1), Arrays.asList(roles.split("\\|")), lineNumber);
+    }
+
+    // RFC 4180 unutar jedne linije: "..." s "" za navodnik; polja bez navodnika ostaju kakva jesu
+    private static List<String> splitCsv(String line, int lineNumber) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i == line.length()) {
+                        throw invalid(lineNumber, "unterminated quoted field");
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw invalid(lineNumber, "unexpected text after quoted field");
+                }
+            } else {
+                int end = line.indexOf(',', i);
+                field.append(line, i, end < 0 ? line.length() : end);
+                i = end < 0 ? line.length() : end;
+            }
+            fields.add(field.toString());
+            field.setLength(0);
+            if (i == line.length()) {
+                return fields;
+            }
+            i++; // ','
+        }
+    }
+
+    private ImportRow parseJson(String line, int lineNumber) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        List<String> roles = new ArrayList<>();
+        node.path("roles").forEach(role -> roles.add(role.asText()));
+        return row(node.path("username").asText(""), node.path("password").asText(""), roles, lineNumber);
+    }
+
+    private static ImportRow row(String username, String password, List<String> rawRoles, int lineNumber) {
+        if (username.isBlank() || password.isEmpty()) {
+            throw invalid(lineNumber, "username and password are required");
+        }
+        List<String> roles = rawRoles.stream()
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .map(role -> role.startsWith("ROLE_") ? role.substring(5) : role)
+                .distinct()
+                .toList();
+        return new ImportRow(username, password, roles.isEmpty() ? List.of("USER") : roles);
+    }
+
+    private static IllegalArgumentException invalid(int lineNumber, String message) {
+        return new IllegalArgumentException("User import, line " + lineNumber + ": " + message);
+    }
+}
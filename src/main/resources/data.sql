@@ -1,4 +1,14 @@
-INSERT INTO demo_users (username, role) VALUES
-  ('student', 'USER'),
-  ('admin', 'ADMIN'),
-  ('assistant', 'USER');
+INSERT INTO demo_users (username, full_name, email, role) VALUES
+  ('student', 'Ivana Horvat', 'student@example.com', 'USER'),
+  ('admin', 'Marko Kovac', 'admin@example.com', 'ADMIN'),
+  ('assistant', 'Petra Babic', 'assistant@example.com', 'USER');
+
+-- student / pass123, admin / admin123 (BCrypt cost 10; rehashed to the calibrated cost on first login)
+INSERT INTO app_roles (name) VALUES ('USER'), ('ADMIN');
+INSERT INTO app_users (username, password) VALUES
+  ('student', '$2a$10$A8C4DQ2HYmnQ52GTY9phwenzjLe2vCpJ3OGBi5JKnHa7fYHalhhJm'),
+  ('admin', '$2a$10$2hdd7IY.JuRQhoRLroO60ewNrBQKh3nfYuP6cNNYdefFXUTvgkNUq');
+INSERT INTO app_user_roles (user_id, role_id)
+  SELECT u.id, r.id FROM app_users u JOIN app_roles r
+    ON (u.username = 'student' AND r.name = 'USER')
+    OR (u.username = 'admin' AND r.name IN ('ADMIN', 'USER'));
@@ -1,5 +1,28 @@
 CREATE TABLE demo_users (
   id INT PRIMARY KEY AUTO_INCREMENT,
   username VARCHAR(64) NOT NULL,
+  full_name VARCHAR(128),
+  email VARCHAR(128),
   role VARCHAR(32) NOT NULL
 );
+CREATE INDEX idx_demo_users_username ON demo_users (username);
+
+-- Login users (JdbcUserDetailsService). Passwords are BCrypt hashes, roles without ROLE_ prefix.
+CREATE TABLE app_users (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  username VARCHAR(64) NOT NULL,
+  password VARCHAR(100) NOT NULL,
+  enabled BOOLEAN DEFAULT TRUE NOT NULL,
+  locked BOOLEAN DEFAULT FALSE NOT NULL,
+  CONSTRAINT uq_app_users_username UNIQUE (username)
+);
+CREATE TABLE app_roles (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  name VARCHAR(32) NOT NULL,
+  CONSTRAINT uq_app_roles_name UNIQUE (name)
+);
+CREATE TABLE app_user_roles (
+  user_id BIGINT NOT NULL REFERENCES app_users (id) ON DELETE CASCADE,
+  role_id INT NOT NULL REFERENCES app_roles (id),
+  PRIMARY KEY (user_id, role_id)
+);
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -114,13 +115,115 @@ class ApiFlowIntegrationTest {
                         .contentType(MediaType.TEXT_PLAIN)
                         .content("nova bilješka iz testa"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(jsonPath("$.text").value("[student] nova bilješka iz testa"));
 
         mockMvc.perform(get("/api/admin/secret")
                         .header("Authorization", "Bearer " + token))
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void notes_are_paged_with_cursor() throws Exception {
+        String token = loginAndGetToken("student", "pass123");
+
+        // id 0 i 1 su uvijek pozdravne bilješke
+        mockMvc.perform(get("/api/notes").param("limit", "1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "0"))
+                .andExpect(content().string(containsString("student vidi: Prva")));
+
+        mockMvc.perform(get("/api/notes").param("limit", "1").param("after", "0")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("student vidi: Druga")));
+
+        // kursor na samom kraju ne smije se preliti natrag na početak
+        mockMvc.perform(get("/api/notes").param("after", String.valueOf(Long.MAX_VALUE))
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(content().string("[]"));
+    }
+
+    @Test
+    void unchanged_notes_are_not_sent_again() throws Exception {
+        String token = loginAndGetToken("admin", "admin123");
+
+        String etag = mockMvc.perform(get("/api/notes")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/notes")
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Cache-Control", "private, no-cache"))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/api/notes")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("nova verzija"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/notes")
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("nova verzija")));
+    }
+
+    @Test
+    void notes_etag_is_never_shared_between_users() throws Exception {
+        String student = loginAndGetToken("student", "pass123");
+        String admin = loginAndGetToken("admin", "admin123");
+
+        String studentEtag = mockMvc.perform(get("/api/notes")
+                        .header("Authorization", "Bearer " + student))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "private, no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+        String adminEtag = mockMvc.perform(get("/api/notes")
+                        .header("Authorization", "Bearer " + admin))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(studentEtag, adminEtag);
+
+        // isti preglednik, drugi korisnik: tuđi ETag ne smije dati 304
+        mockMvc.perform(get("/api/notes")
+                        .header("Authorization", "Bearer " + admin)
+                        .header("If-None-Match", studentEtag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("admin vidi")));
+    }
+
+    @Test
+    void introspection_requires_admin() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("tokens", List.of("abc.def.ghi")));
+
+        mockMvc.perform(post("/api/auth/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().is4xxClientError());
+
+        mockMvc.perform(post("/api/auth/introspect")
+                        .header("Authorization", "Bearer " + loginAndGetToken("student", "pass123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/auth/introspect")
+                        .header("Authorization", "Bearer " + loginAndGetToken("admin", "admin123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"active\":false")));
+    }
+
     @Test
     void admin_can_open_admin_secret() throws Exception {
         String token = loginAndGetToken("admin", "admin123");
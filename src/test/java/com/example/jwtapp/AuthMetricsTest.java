@@ -0,0 +1,74 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.jwt.AuthMetrics;
+import com.example.jwtapp.jwt.CompactTokenProfile;
+import com.example.jwtapp.jwt.JwtAuthenticationFilter;
+import com.example.jwtapp.jwt.JwtKeyRing;
+import com.example.jwtapp.jwt.JwtService;
+import com.example.jwtapp.jwt.TokenRevocationService;
+import com.example.jwtapp.jwt.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthMetricsTest {
+
+    private static final String SECRET = "change-me-change-me-change-me-change-me!";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AuthMetrics metrics = new AuthMetrics(registry);
+    private final JwtService jwtService = new JwtService(JwtKeyRing.hmac(SECRET), 15, "secure-api", "secure-app",
+            VerifiedTokenCache.disabled(), TokenRevocationService.empty(), CompactTokenProfile.disabled(), metrics);
+
+    private final UserDetails student = User.withUsername("student")
+            .password("ignored")
+            .roles("USER")
+            .build();
+
+    private final JwtAuthenticationFilter filter =
+            new JwtAuthenticationFilter(jwtService, new InMemoryUserDetailsManager(student), false, metrics);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenIsTimedInEveryPhase() throws Exception {
+        authenticate(jwtService.generateToken(student));
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        for (String phase : new String[] {"parse", "signature", "user_lookup", "authorities"}) {
+            assertEquals(1, registry.timer("auth.jwt.phase", "phase", phase).count(), phase);
+        }
+    }
+
+    @Test
+    void rejectedTokensAreCountedByCause() throws Exception {
+        UserDetails deleted = User.withUsername("deleted").password("ignored").roles("USER").build();
+
+        authenticate("not-a-jwt");
+        authenticate(jwtService.generateToken(deleted));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, registry.counter("auth.jwt.failures", "cause", "malformed").count());
+        // prije je UsernameNotFoundException iz filtera završavao kao 500
+        assertEquals(1, registry.counter("auth.jwt.failures", "cause", "user_not_found").count());
+        assertEquals(0, registry.counter("auth.jwt.failures", "cause", "expired").count());
+    }
+
+    private void authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
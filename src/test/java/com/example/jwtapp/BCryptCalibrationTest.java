@@ -0,0 +1,42 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.config.BCryptCalibration;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptCalibrationTest {
+
+    @Test
+    void calibrationNeverGoesBelowTheFloor() {
+        assertEquals(6, BCryptCalibration.strengthFor(0, 6));
+        // 1 ms je nedostižno i za cost 4 - ostaje minimum
+        assertEquals(4, BCryptCalibration.strengthFor(1, 4));
+        assertTrue(BCryptCalibration.strengthFor(50, 4) >= 4);
+    }
+
+    @Test
+    void successfulLoginRehashesWeakerPasswordToCurrentCost() {
+        String legacyHash = new BCryptPasswordEncoder(4).encode("pass123");
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+                User.withUsername("student").password(legacyHash).roles("USER").build());
+
+        PasswordEncoder encoder = BCryptCalibration.encoder(5);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encoder);
+        provider.setUserDetailsService(users);
+        provider.setUserDetailsPasswordService(users);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("student", "pass123"));
+
+        String upgraded = users.loadUserByUsername("student").getPassword();
+        assertTrue(upgraded.startsWith("{bcrypt}$2a$05$"), upgraded);
+        assertTrue(encoder.matches("pass123", upgraded));
+        assertFalse(encoder.upgradeEncoding(upgraded));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.auth.CachingDaoAuthenticationProvider;
+import com.example.jwtapp.auth.CredentialVerificationCache;
+import com.example.jwtapp.jwt.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialVerificationCacheTest {
+
+    private final AtomicInteger bcryptChecks = new AtomicInteger();
+    private final PasswordEncoder countingEncoder = new BCryptPasswordEncoder(4) {
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            bcryptChecks.incrementAndGet();
+            return super.matches(rawPassword, encodedPassword);
+        }
+    };
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CredentialVerificationCache cache = new CredentialVerificationCache(true, 100, 60);
+    private final InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+            User.withUsername("bot").password(countingEncoder.encode("pass123")).roles("USER").build());
+    private final CachingDaoAuthenticationProvider provider = provider();
+
+    @Test
+    void repeatedLoginSkipsBcryptButWrongPasswordNeverHits() {
+        login("pass123");
+        login("pass123");
+        login("pass123");
+        assertEquals(1, bcryptChecks.get());
+
+        assertThrows(BadCredentialsException.class, () -> login("wrong"));
+        assertEquals(2, bcryptChecks.get());
+    }
+
+    @Test
+    void passwordChangeAndLockAreNeverServedFromCache() {
+        login("pass123");
+
+        users.updateUser(User.withUsername("bot").password(countingEncoder.encode("new-pass")).roles("USER").build());
+        assertThrows(BadCredentialsException.class, () -> login("pass123"));
+        login("new-pass");
+
+        users.updateUser(User.withUsername("bot").password(countingEncoder.encode("new-pass")).roles("USER")
+                .accountLocked(true).build());
+        assertThrows(LockedException.class, () -> login("new-pass"));
+    }
+
+    @Test
+    void cacheHitsAreNotTimedAsBcrypt() {
+        login("pass123");
+        login("pass123");
+        login("pass123");
+        assertThrows(BadCredentialsException.class, () -> login("wrong"));
+
+        assertEquals(1, loginTimerCount("success", "false"));
+        assertEquals(2, loginTimerCount("success", "true"));
+        assertEquals(1, loginTimerCount("failure", "false"));
+    }
+
+    private long loginTimerCount(String outcome, String cached) {
+        return registry.get("auth.login.bcrypt").tag("outcome", outcome).tag("cached", cached).timer().count();
+    }
+
+    private void login(String password) {
+        provider.authenticate(new UsernamePasswordAuthenticationToken("bot", password));
+    }
+
+    private CachingDaoAuthenticationProvider provider() {
+        CachingDaoAuthenticationProvider p = new CachingDaoAuthenticationProvider(countingEncoder, cache,
+                new AuthMetrics(registry));
+        p.setUserDetailsService(users);
+        return p;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.api.DemoUserCache;
+import com.example.jwtapp.api.DemoUserRepository;
+import com.example.jwtapp.api.DemoUserRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DemoUserCacheTest {
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    // "baza" koja broji upite i po potrebi čeka da je test pusti
+    private final DemoUserRepository repository = new DemoUserRepository(null, null) {
+        @Override
+        public List<DemoUserRow> findByUsername(String username) {
+            queries.incrementAndGet();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return List.of(new DemoUserRow(1, username, "Ivana Horvat", "student@example.com", "USER"));
+        }
+    };
+
+    private final DemoUserCache cache = new DemoUserCache(repository, 100, 60);
+
+    @Test
+    void concurrentMissesShareOneQuery() throws Exception {
+        release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<DemoUserRow>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> cache.findByUsername("student")));
+        }
+        // čekamo da se ostali pridruže prvom upitu
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.coalescedLoads() < 7 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<List<DemoUserRow>> result : results) {
+            assertEquals("student", result.get(5, TimeUnit.SECONDS).get(0).username());
+        }
+        pool.shutdown();
+        assertEquals(1, queries.get());
+        assertEquals(7, cache.coalescedLoads());
+
+        cache.findByUsername("student");
+        assertEquals(1, queries.get());
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void invalidationForcesReload() {
+        cache.findByUsername("student");
+        cache.invalidateAll();
+        cache.findByUsername("student");
+
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void loadOverlappingInvalidationIsNotCached() throws Exception {
+        release = new CountDownLatch(1);
+        Thread loader = new Thread(() -> cache.findByUsername("student"));
+        loader.start();
+        while (queries.get() == 0) {
+            Thread.sleep(1);
+        }
+        cache.invalidateAll();
+        release.countDown();
+        loader.join(5000);
+
+        cache.findByUsername("student");
+        assertEquals(2, queries.get());
+    }
+}
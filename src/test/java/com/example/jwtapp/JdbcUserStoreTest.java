@@ -0,0 +1,72 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.users.JdbcUserDetailsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        // zaseban H2 - test mijenja retke u app_users
+        "spring.datasource.url=jdbc:h2:mem:jdbc_user_store;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+class JdbcUserStoreTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcUserDetailsService users;
+
+    @Test
+    void seededCost10HashIsUpgradedOnFirstLogin() throws Exception {
+        assertTrue(storedPassword("admin").startsWith("$2a$10$"));
+
+        login("admin", "admin123").andExpect(status().isOk());
+
+        String upgraded = storedPassword("admin");
+        assertTrue(upgraded.startsWith("{bcrypt}$2a$"), upgraded);
+        // nova lozinka mora raditi i nakon rehasha (cache je invalidiran)
+        login("admin", "admin123").andExpect(status().isOk());
+    }
+
+    @Test
+    void lockedUserIsRejectedOnceCacheIsInvalidated() throws Exception {
+        login("student", "pass123").andExpect(status().isOk());
+
+        jdbcTemplate.update("UPDATE app_users SET locked = TRUE WHERE username = 'student'");
+        users.invalidate("student");
+
+        login("student", "pass123").andExpect(status().is4xxClientError());
+        assertEquals(1, users.loadUserByUsername("student").getAuthorities().size());
+        assertFalse(users.loadUserByUsername("student").isAccountNonLocked());
+    }
+
+    private String storedPassword(String username) {
+        return jdbcTemplate.queryForObject("SELECT password FROM app_users WHERE username = ?", String.class, username);
+    }
+
+    private ResultActions login(String username, String password) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("username", username, "password", password))));
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.jwt.AuthMetrics;
+import com.example.jwtapp.jwt.CompactTokenProfile;
+import com.example.jwtapp.jwt.JwtKeyRing;
+import com.example.jwtapp.jwt.JwtService;
+import com.example.jwtapp.jwt.RevokedTokenException;
+import com.example.jwtapp.jwt.TokenIntrospection;
+import com.example.jwtapp.jwt.TokenIntrospectionService;
+import com.example.jwtapp.jwt.TokenRevocationService;
+import com.example.jwtapp.jwt.VerifiedToken;
+import com.example.jwtapp.jwt.VerifiedTokenCache;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "change-me-change-me-change-me-change-me!";
+
+    private final JwtService jwtService = new JwtService(SECRET, 15, "secure-api", "secure-app");
+
+    private final UserDetails admin = User.withUsername("admin")
+            .password("ignored")
+            .roles("ADMIN", "USER")
+            .build();
+
+    @Test
+    void verifyReturnsAllClaimsFromSingleParse() {
+        String token = jwtService.generateToken(admin);
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertEquals("admin", verified.subject());
+        assertEquals(List.of("ADMIN", "USER"), verified.roles());
+        assertEquals("secure-api", verified.issuer());
+        assertEquals("secure-app", verified.audience());
+        assertNotNull(verified.issuedAt());
+        assertTrue(verified.expiresAt().isAfter(verified.issuedAt()));
+        assertTrue(verified.isValidFor(admin, Instant.now()));
+    }
+
+    @Test
+    void verifyRejectsTamperedToken() {
+        String token = jwtService.generateToken(admin);
+        String tampered = tamper(token);
+
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+    }
+
+    @Test
+    void tokenWithoutExpirationIsNeverValid() {
+        String token = Jwts.builder()
+                .setSubject("admin")
+                .setIssuedAt(new Date())
+                .claim("rol", List.of("ADMIN"))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertNull(verified.expiresAt());
+        assertFalse(verified.isValidFor(admin, Instant.now()));
+    }
+
+    @Test
+    void repeatedTokenIsServedFromCacheButTamperedOneIsNot() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100);
+        JwtService cached = new JwtService(JwtKeyRing.hmac(SECRET), 15, "secure-api", "secure-app",
+                cache, TokenRevocationService.empty(), CompactTokenProfile.disabled(),
+                AuthMetrics.noop());
+        String token = cached.generateToken(admin);
+
+        VerifiedToken first = cached.verify(token);
+        VerifiedToken second = cached.verify(token);
+
+        assertSame(first, second);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+
+        String tampered = tamper(token);
+        assertThrows(JwtException.class, () -> cached.verify(tampered));
+    }
+
+    @Test
+    void asymmetricTokensSurviveKeyRotationAndArePublishedInJwks() {
+        for (String algorithm : List.of("RS256", "ES256")) {
+            JwtKeyRing ring = new JwtKeyRing(algorithm, SECRET, 15, "", "", "");
+            JwtService service = new JwtService(ring, 15, "secure-api", "secure-app",
+                    VerifiedTokenCache.disabled(), TokenRevocationService.empty(), CompactTokenProfile.disabled(),
+                    AuthMetrics.noop());
+
+            String beforeRotation = service.generateToken(admin);
+            String oldKid = ring.active().kid();
+            String newKid = ring.rotate();
+            String afterRotation = service.generateToken(admin);
+
+            assertEquals("admin", service.verify(beforeRotation).subject());
+            assertEquals("admin", service.verify(afterRotation).subject());
+
+            List<?> keys = (List<?>) ring.jwks().get("keys");
+            assertEquals(2, keys.size());
+            assertTrue(keys.stream().anyMatch(k -> oldKid.equals(((Map<?, ?>) k).get("kid"))));
+            assertTrue(keys.stream().anyMatch(k -> newKid.equals(((Map<?, ?>) k).get("kid"))));
+        }
+    }
+
+    @Test
+    void verifyOnlyNodesAcceptTokensOfTheMintingNode() {
+        KeyPair pair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        String privatePem = Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded());
+        String publicPem = Base64.getEncoder().encodeToString(pair.getPublic().getEncoded());
+
+        JwtKeyRing mintingRing = new JwtKeyRing("ES256", SECRET, 15, "", privatePem, publicPem);
+        JwtService minting = service(mintingRing);
+        // samo javni ključ; kid se izvodi iz ključa pa se slaže bez konfiguracije
+        JwtKeyRing verifyOnlyRing = new JwtKeyRing("ES256", SECRET, 15, "", "", publicPem);
+        JwtService verifyOnly = service(verifyOnlyRing);
+        // javni ključ samo kao dodatni ključ za provjeru
+        JwtService viaList = service(new JwtKeyRing("ES256", SECRET, 15, "", "", "", mintingRing.active().kid() + ":" + publicPem));
+
+        String token = minting.generateToken(admin);
+        assertEquals("admin", verifyOnly.verify(token).subject());
+        assertEquals("admin", viaList.verify(token).subject());
+
+        assertFalse(verifyOnlyRing.canSign());
+        assertThrows(IllegalStateException.class, () -> verifyOnly.generateToken(admin));
+        // konfigurirani ključevi se ne rotiraju na jednom čvoru
+        assertFalse(mintingRing.canRotate());
+        assertThrows(IllegalStateException.class, mintingRing::rotate);
+        assertEquals(mintingRing.jwks(), verifyOnlyRing.jwks());
+    }
+
+    private static JwtService service(JwtKeyRing ring) {
+        return new JwtService(ring, 15, "secure-api", "secure-app",
+                VerifiedTokenCache.disabled(), TokenRevocationService.empty(), CompactTokenProfile.disabled(),
+                AuthMetrics.noop());
+    }
+
+    @Test
+    void asymmetricRingRejectsForeignKeysAndHmacTokens() {
+        JwtService service = new JwtService(new JwtKeyRing("RS256", SECRET, 15, "", "", ""),
+                15, "secure-api", "secure-app", VerifiedTokenCache.disabled(),
+                TokenRevocationService.empty(), CompactTokenProfile.disabled(),
+                AuthMetrics.noop());
+        JwtService otherNode = new JwtService(new JwtKeyRing("RS256", SECRET, 15, "", "", ""),
+                15, "secure-api", "secure-app", VerifiedTokenCache.disabled(),
+                TokenRevocationService.empty(), CompactTokenProfile.disabled(),
+                AuthMetrics.noop());
+
+        // drugi ključ s nepoznatim kid-om
+        assertThrows(JwtException.class, () -> service.verify(otherNode.generateToken(admin)));
+        // HS256 token (bez kid-a) se ne smije prihvatiti kad radimo s RS256
+        assertThrows(JwtException.class, () -> service.verify(jwtService.generateToken(admin)));
+    }
+
+    @Test
+    void revokedTokenIsRejectedEvenWhenCached() {
+        TokenRevocationService revocations = TokenRevocationService.empty();
+        JwtService service = new JwtService(JwtKeyRing.hmac(SECRET), 15, "secure-api", "secure-app",
+                new VerifiedTokenCache(true, 100), revocations, CompactTokenProfile.disabled(),
+                AuthMetrics.noop());
+
+        String revokedToken = service.generateToken(admin);
+        String otherToken = service.generateToken(admin);
+        VerifiedToken verified = service.verify(revokedToken);
+        assertNotNull(verified.id());
+
+        revocations.revoke(verified.id(), verified.expiresAt());
+
+        assertThrows(RevokedTokenException.class, () -> service.verify(revokedToken));
+        assertEquals("admin", service.verify(otherToken).subject());
+        assertEquals(1, revocations.size());
+    }
+
+    @Test
+    void introspectionKeepsRequestOrderAndExplainsRejections() {
+        String token = jwtService.generateToken(admin);
+        String tampered = tamper(token);
+        String foreign = new JwtService("another-secret-another-secret-another!!", 15, "secure-api", "secure-app")
+                .generateToken(admin);
+
+        List<TokenIntrospection> results = new TokenIntrospectionService(jwtService)
+                .introspect(List.of(token, "garbage", tampered, token, foreign));
+
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).active());
+        assertEquals("admin", results.get(0).sub());
+        assertEquals(List.of("ADMIN", "USER"), results.get(0).roles());
+        assertEquals("malformed", results.get(1).error());
+        assertEquals("bad_signature", results.get(2).error());
+        // duplikat dobiva isti rezultat, bez ponovne provjere
+        assertSame(results.get(0), results.get(3));
+        assertFalse(results.get(4).active());
+        assertNull(results.get(4).sub());
+    }
+
+    @Test
+    void compactTokenIsShorterAndBothFormatsAreAccepted() {
+        CompactTokenProfile compact = new CompactTokenProfile(true, new String[] {"USER", "ADMIN"}, 2);
+        JwtService compactService = new JwtService(JwtKeyRing.hmac(SECRET), 15, "secure-api", "secure-app",
+                VerifiedTokenCache.disabled(), TokenRevocationService.empty(), compact, AuthMetrics.noop());
+
+        String classic = jwtService.generateToken(admin);
+        String small = compactService.generateToken(admin);
+
+        assertTrue(small.length() < classic.length());
+        // maska daje role redom iz registra
+        assertEquals(List.of("USER", "ADMIN"), compactService.verify(small).roles());
+        // migracija: kompaktni servis čita stare tokene, stari servis (isti registar) čita kompaktne
+        assertEquals(List.of("ADMIN", "USER"), compactService.verify(classic).roles());
+        assertEquals(List.of("USER", "ADMIN"), jwtService.verify(small).roles());
+
+        UserDetails many = User.withUsername("student")
+                .password("ignored")
+                .roles("USER", "AUDITOR", "TEACHER")
+                .build();
+        VerifiedToken compressed = compactService.verify(compactService.generateToken(many));
+        assertEquals(List.of("USER", "AUDITOR", "TEACHER"), compressed.roles());
+    }
+
+    // zadnji base64url znak potpisa nosi i padding bitove - mijenjamo znak ranije u potpisu
+    private static String tamper(String token) {
+        int i = token.length() - 5;
+        char replacement = token.charAt(i) == 'A' ? 'B' : 'A';
+        return token.substring(0, i) + replacement + token.substring(i + 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.notes.NotesIndex;
+import com.example.jwtapp.notes.NotesStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotesIndexTest {
+
+    private final NotesStore store = new NotesStore();
+    private final NotesIndex index = new NotesIndex(store);
+
+    private List<Long> ids(String query) {
+        return index.search("student", query, 10).stream().map(NotesIndex.Hit::id).toList();
+    }
+
+    @Test
+    void croatianDiacriticsAreFolded() {
+        store.append("student", "Đurđica piše bilješku o šifriranju");
+
+        assertEquals(List.of(2L), ids("durdica"));
+        assertEquals(List.of(2L), ids("SIFRIRANJU"));
+        assertEquals(List.of(2L), ids("bilješku piše"));
+    }
+
+    @Test
+    void andOrAndPrefixQueries() {
+        store.append("student", "jwt token istječe");
+        store.append("student", "refresh token");
+        store.append("student", "sesija na serveru");
+
+        assertEquals(List.of(2L), ids("jwt token"));
+        assertEquals(List.of(), ids("jwt sesija"));
+        assertEquals(List.of(2L, 4L), ids("jwt OR sesija").stream().sorted().toList());
+        assertEquals(List.of(4L), ids("sesi*"));
+        // prva pozdravna bilješka sadrži "tokenu"
+        assertTrue(ids("token*").containsAll(List.of(0L, 2L, 3L)));
+    }
+
+    @Test
+    void returnsTopKByScoreNewestFirstOnTies() {
+        for (int i = 0; i < 50; i++) {
+            store.append("student", "obična bilješka " + i);
+        }
+        store.append("student", "ključ ključ ključ");
+
+        List<NotesIndex.Hit> hits = index.search("student", "ključ OR bilješka", 3);
+        assertEquals(3, hits.size());
+        assertEquals(52L, hits.get(0).id());
+        assertTrue(hits.get(1).id() > hits.get(2).id());
+    }
+
+    @Test
+    void andAndPrefixSpanManyPostingBlocks() {
+        // id = 2 + i; "rijetko" svaka 97., "broj<i % 300>*" daje stotine prefiks-termova
+        for (int i = 0; i < 1000; i++) {
+            store.append("student", "zajedničko broj" + (i % 300) + (i % 97 == 0 ? " rijetko" : ""));
+        }
+
+        List<NotesIndex.Hit> rare = index.search("student", "zajednicko rijetko", 100);
+        assertEquals(List.of(2L, 99L, 196L, 293L, 390L, 487L, 584L, 681L, 778L, 875L, 972L),
+                rare.stream().map(NotesIndex.Hit::id).sorted().toList());
+
+        // broj29* = broj29, broj290..broj299; od njih je samo i = 291 djeljiv s 97
+        assertEquals(List.of(293L), ids("broj29* rijetko"));
+        assertEquals(1000, index.search("student", "broj*", 2000).size());
+    }
+
+    @Test
+    void otherUsersNotesAreNotSearched() {
+        store.append("admin", "tajna admina");
+
+        assertEquals(List.of(), ids("tajna"));
+    }
+}
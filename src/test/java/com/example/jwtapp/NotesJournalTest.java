@@ -0,0 +1,145 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.notes.NotesJournal;
+import com.example.jwtapp.notes.NotesStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotesJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private NotesJournal journal(int segmentBytes) throws Exception {
+        return new NotesJournal(dir.toString(), segmentBytes, 5, 3);
+    }
+
+    @Test
+    void notesSurviveRestartWithSameIds() throws Exception {
+        NotesJournal journal = journal(1 << 16);
+        NotesStore store = new NotesStore(journal);
+        store.append("student", "[student] prva");
+        store.append("admin", "[admin] čćžšđ");
+        store.append("student", "[student] druga");
+        journal.destroy();
+
+        NotesStore restored = new NotesStore(journal(1 << 16));
+        assertEquals(store.snapshot("student"), restored.snapshot("student"));
+        assertEquals("[admin] čćžšđ", restored.snapshot("admin").get(2));
+    }
+
+    @Test
+    void rolledSegmentsAreCompactedWithoutLosingNotes() throws Exception {
+        // mali segmenti -> puno rollova i barem jedna kompakcija
+        NotesJournal journal = journal(256);
+        NotesStore store = new NotesStore(journal);
+        for (int i = 0; i < 200; i++) {
+            store.append("student", "note-" + i);
+        }
+        journal.destroy();
+
+        NotesJournal reopened = journal(256);
+        NotesStore restored = new NotesStore(reopened);
+        reopened.destroy();
+        List<String> notes = restored.snapshot("student");
+        assertEquals(202, notes.size());
+        assertEquals("note-199", notes.get(201));
+        assertTrue(segmentCount() < 200 / 5, "segments should have been compacted, found " + segmentCount());
+    }
+
+    @Test
+    void compactionWaitsForReplayOfExistingSegments() throws Exception {
+        // bez kompakcije dok se piše -> na disku ostane puno zatvorenih segmenata
+        NotesJournal writer = new NotesJournal(dir.toString(), 256, 5, 1000);
+        NotesStore store = new NotesStore(writer);
+        for (int i = 0; i < 300; i++) {
+            store.append("student", "note-" + i);
+        }
+        writer.destroy();
+        assertTrue(segmentCount() > 3 * 3);
+
+        // spori replay: kompakcija koja bi krenula odmah obrisala bi segmente ispod njega
+        NotesJournal reopened = journal(256);
+        List<String> replayed = new ArrayList<>();
+        reopened.replay((user, note) -> {
+            replayed.add(note);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertEquals(300, replayed.size());
+        assertEquals("note-299", replayed.get(299));
+
+        // kompakcija nakon replaya ništa ne gubi i ništa ne udvostruči
+        long deadline = System.currentTimeMillis() + 5000;
+        while (segmentCount() > 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        reopened.destroy();
+        List<String> restored = new NotesStore(journal(256)).snapshot("student");
+        assertEquals(302, restored.size());
+        assertEquals("note-299", restored.get(301));
+    }
+
+    @Test
+    void compactedSegmentsStayBelowTheCap() throws Exception {
+        NotesJournal journal = new NotesJournal(dir.toString(), 256, 5, 3, 1024);
+        NotesStore store = new NotesStore(journal);
+        for (int i = 0; i < 400; i++) {
+            store.append("student", "note-" + i);
+        }
+        Thread.sleep(200);
+        journal.destroy();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                assertTrue(Files.size(file) <= 1024, file + " is " + Files.size(file) + " bytes");
+            }
+        }
+        assertTrue(segmentCount() < 400 / 9, "segments should have been compacted, found " + segmentCount());
+        List<String> notes = new NotesStore(journal(256)).snapshot("student");
+        assertEquals(402, notes.size());
+        assertEquals("note-399", notes.get(401));
+    }
+
+    @Test
+    void corruptRecordEndsReplayOfThatSegment() throws Exception {
+        NotesJournal journal = journal(1 << 16);
+        NotesStore store = new NotesStore(journal);
+        store.append("student", "ostaje");
+        store.append("student", "pokvareno");
+        journal.destroy();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(f -> f.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        int offset = new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1).indexOf("pokvareno");
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(offset);
+            file.write('X');
+        }
+
+        List<String> notes = new NotesStore(journal(1 << 16)).snapshot("student");
+        assertEquals(3, notes.size());
+        assertEquals("ostaje", notes.get(2));
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.toString().endsWith(".log")).count();
+        }
+    }
+}
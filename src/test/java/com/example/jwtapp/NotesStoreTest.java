@@ -0,0 +1,114 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.notes.NotesJournal;
+import com.example.jwtapp.notes.NotesStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotesStoreTest {
+
+    private final NotesStore store = new NotesStore();
+
+    @Test
+    void usersOnlySeeTheirOwnNotes() {
+        store.append("student", "[student] moja");
+
+        assertEquals(3, store.size("student"));
+        assertEquals("[student] moja", store.snapshot("student").get(2));
+        // admin dobije samo pozdravne bilješke
+        assertEquals(2, store.size("admin"));
+    }
+
+    @Test
+    void snapshotDoesNotChangeAfterLaterAppends() {
+        List<String> before = store.snapshot("student");
+
+        for (int i = 0; i < 5000; i++) {
+            store.append("student", "n" + i);
+        }
+
+        assertEquals(2, before.size());
+        List<String> after = store.snapshot("student");
+        assertEquals(5002, after.size());
+        assertEquals("n4999", after.get(5001));
+    }
+
+    @Test
+    void concurrentAppendsAreNeitherLostNorDuplicated() throws Exception {
+        int writers = 8;
+        int perWriter = 5000;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perWriter; i++) {
+                    store.append("student", writer + ":" + i);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<String> notes = store.snapshot("student");
+        assertEquals(2 + writers * perWriter, notes.size());
+        Set<String> distinct = new HashSet<>(notes);
+        assertEquals(notes.size(), distinct.size());
+        assertFalse(notes.contains(null));
+    }
+
+    @Test
+    void sameSizeDifferentContentIsADifferentEpoch() {
+        // kao restart bez journala: ista veličina, drugi sadržaj
+        NotesStore restarted = new NotesStore();
+        store.append("student", "prije restarta");
+        restarted.append("student", "nakon restarta");
+
+        assertEquals(store.size("student"), restarted.size("student"));
+        assertNotEquals(store.epoch(), restarted.epoch());
+    }
+
+    @Test
+    void journaledEpochSurvivesRestart(@TempDir Path dir) throws Exception {
+        NotesJournal journal = new NotesJournal(dir.toString(), 1 << 16, 5, 3);
+        String epoch = new NotesStore(journal).epoch();
+        journal.destroy();
+
+        NotesJournal reopened = new NotesJournal(dir.toString(), 1 << 16, 5, 3);
+        assertEquals(epoch, new NotesStore(reopened).epoch());
+        reopened.destroy();
+    }
+
+    @Test
+    void offHeapStorageRoundTripsUtf8AndOversizedNotes() {
+        NotesStore offHeap = new NotesStore(NotesJournal.disabled(), "offheap", 64);
+        String big = "ž".repeat(100);
+
+        offHeap.append("student", "čćžšđ");
+        offHeap.append("student", big);
+        offHeap.append("student", "nakon velike");
+
+        List<String> notes = offHeap.snapshot("student");
+        assertEquals(5, notes.size());
+        assertEquals("Prva bilješka: 'Ne vjeruj tokenu koji traje vječno.'", notes.get(0));
+        assertEquals("čćžšđ", notes.get(2));
+        assertEquals(big, notes.get(3));
+        assertEquals("nakon velike", notes.get(4));
+        assertTrue(offHeap.offHeapBytes() > 0);
+        assertEquals(0, store.offHeapBytes());
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.notes.NotesStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class NotesStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NotesStore notesStore;
+
+    @Test
+    void streamResumesAfterLastEventIdAndPushesNewNotes() throws Exception {
+        String token = login();
+
+        MockHttpServletResponse stream = mockMvc.perform(get("/api/notes/stream")
+                        .header("Authorization", "Bearer " + token)
+                        .header("Last-Event-ID", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        // id 0 je preskočen, id 1 (druga pozdravna) dolazi kao replay
+        awaitContent(stream, "id:1");
+        assertFalse(stream.getContentAsString(StandardCharsets.UTF_8).contains("id:0\n"));
+
+        mockMvc.perform(post("/api/notes")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("stiže uživo"))
+                .andExpect(status().isOk());
+
+        awaitContent(stream, "stiže uživo");
+        assertTrue(stream.getContentAsString(StandardCharsets.UTF_8).contains("event:note"));
+    }
+
+    @Test
+    void longReplayIsSentInChunksAndStaysInOrder() throws Exception {
+        String token = login();
+        // više od bufferSize (256) - replay ide u nekoliko navrata
+        int before = notesStore.size("student");
+        for (int i = 0; i < 600; i++) {
+            notesStore.append("student", "replay " + i);
+        }
+        long last = before + 599;
+
+        MockHttpServletResponse stream = mockMvc.perform(get("/api/notes/stream")
+                        .header("Authorization", "Bearer " + token)
+                        .header("Last-Event-ID", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        awaitContent(stream, "id:" + last + "\n");
+        String content = stream.getContentAsString(StandardCharsets.UTF_8);
+        int previous = -1;
+        for (long id = 1; id <= last; id++) {
+            int at = content.indexOf("id:" + id + "\n");
+            assertTrue(at > previous, "id " + id + " missing or out of order");
+            previous = at;
+        }
+    }
+
+    @Test
+    void streamsPerUserAreCapped() throws Exception {
+        // admin ne otvara streamove u drugim testovima - app.notes.stream.maxPerUser=8
+        String token = login("admin", "admin123");
+        for (int i = 0; i < 8; i++) {
+            mockMvc.perform(get("/api/notes/stream")
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(request().asyncStarted());
+        }
+
+        mockMvc.perform(get("/api/notes/stream")
+                        .header("Authorization", "Bearer " + token)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.error").value("too_many_streams"));
+    }
+
+    @Test
+    void streamRequiresToken() throws Exception {
+        mockMvc.perform(get("/api/notes/stream"))
+                .andExpect(status().is4xxClientError());
+    }
+
+    private void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString(StandardCharsets.UTF_8).contains(expected)) {
+            assertTrue(System.currentTimeMillis() < deadline,
+                    "no '" + expected + "' in stream: " + response.getContentAsString(StandardCharsets.UTF_8));
+            Thread.sleep(20);
+        }
+    }
+
+    private String login() throws Exception {
+        return login("student", "pass123");
+    }
+
+    private String login(String username, String password) throws Exception {
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("username", username, "password", password))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+}
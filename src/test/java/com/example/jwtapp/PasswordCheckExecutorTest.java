@@ -0,0 +1,77 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.auth.LoginBusyException;
+import com.example.jwtapp.auth.PasswordCheckExecutor;
+import com.example.jwtapp.jwt.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordCheckExecutorTest {
+
+    @Test
+    void fullQueueFailsFastInsteadOfWaiting() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordCheckExecutor executor = new PasswordCheckExecutor(1, 1, 3, new AuthMetrics(registry));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // 1 thread zauzet, 1 mjesto u redu zauzeto -> treći mora odmah dobiti odbijenicu
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.run(() -> {
+                started.countDown();
+                await(release);
+                return "first";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.run(() -> "second"));
+            waitUntilQueued(executor, queued);
+
+            LoginBusyException busy = assertThrows(LoginBusyException.class, () -> executor.run(() -> "third"));
+            assertEquals(3, busy.retryAfterSeconds());
+            assertEquals(1, registry.counter("auth.login.rejected").count());
+
+            release.countDown();
+            assertEquals("first", running.get(5, TimeUnit.SECONDS));
+            assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void authenticationExceptionReachesCallerUnchanged() {
+        PasswordCheckExecutor executor = new PasswordCheckExecutor(1, 1, 1, AuthMetrics.noop());
+        try {
+            assertThrows(BadCredentialsException.class, () -> executor.run(() -> {
+                throw new BadCredentialsException("Bad credentials");
+            }));
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    // drugi zadatak mora sjesti u red prije nego pošaljemo treći
+    private static void waitUntilQueued(PasswordCheckExecutor executor, CompletableFuture<String> queued)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.queueDepth() == 0 && !queued.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
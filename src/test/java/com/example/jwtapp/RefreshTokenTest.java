@@ -0,0 +1,77 @@
+package com.example.jwtapp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RefreshTokenTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void refreshRotatesTokenAndIssuesWorkingAccessToken() throws Exception {
+        JsonNode login = login("student", "pass123");
+        String refreshToken = login.get("refreshToken").asText();
+
+        JsonNode refreshed = read(refresh(refreshToken).andExpect(status().isOk()));
+
+        assertNotEquals(refreshToken, refreshed.get("refreshToken").asText());
+        mockMvc.perform(get("/api/notes")
+                        .header("Authorization", "Bearer " + refreshed.get("token").asText()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void reusingRotatedTokenRevokesWholeFamily() throws Exception {
+        String original = login("student", "pass123").get("refreshToken").asText();
+        String rotated = read(refresh(original).andExpect(status().isOk())).get("refreshToken").asText();
+
+        // stari token je već iskorišten -> reuse
+        refresh(original).andExpect(status().isUnauthorized());
+        // ... i zbog toga ni najnoviji token iz iste obitelji više ne vrijedi
+        refresh(rotated).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void garbageRefreshTokenIsRejected() throws Exception {
+        refresh("not-a-refresh-token").andExpect(status().isUnauthorized());
+        refresh("00ff.!!!").andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))));
+    }
+
+    private JsonNode login(String username, String password) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("username", username, "password", password));
+        return read(mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk()));
+    }
+
+    private JsonNode read(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+}
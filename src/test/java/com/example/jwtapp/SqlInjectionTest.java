@@ -1,5 +1,7 @@
 package com.example.jwtapp;
 
+import com.example.jwtapp.api.DemoUserRepository;
+import com.example.jwtapp.api.DemoUserRow;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +10,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -23,6 +33,9 @@ class SqlInjectionTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private DemoUserRepository demoUsers;
+
     @Test
     void vulnerableEndpointReturnsMultipleRowsForInjectionPayload() throws Exception {
         String token = loginAndGetToken("student", "pass123");
@@ -45,6 +58,47 @@ class SqlInjectionTest {
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
+    @Test
+    void repositoryMapsRowsToRecords() {
+        assertEquals(
+                List.of(new DemoUserRow(1, "student", "Ivana Horvat", "student@example.com", "USER")),
+                demoUsers.findByUsername("student"));
+        assertEquals(List.of(), demoUsers.findByUsername("' OR '1'='1"));
+    }
+
+    @Test
+    void batchLookupKeepsRequestOrderAndReportsMissing() throws Exception {
+        String token = loginAndGetToken("student", "pass123");
+
+        String response = mockMvc.perform(post("/api/sql/safe/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "usernames", List.of("assistant", "nobody", "student", "assistant", "' OR '1'='1")))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode json = objectMapper.readTree(response);
+        assertEquals(2, json.get("users").size());
+        assertEquals("assistant", json.get("users").get(0).get("username").asText());
+        assertEquals("student", json.get("users").get(1).get("username").asText());
+        assertEquals(List.of("nobody", "' OR '1'='1"),
+                objectMapper.convertValue(json.get("missing"), List.class));
+    }
+
+    @Test
+    void batchLookupSpansSeveralInChunks() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            names.add("ghost" + i);
+        }
+        names.add(700, "admin");
+
+        List<DemoUserRow> rows = demoUsers.findByUsernames(names);
+        assertEquals(1, rows.size());
+        assertEquals("admin", rows.get(0).username());
+    }
+
     private String loginAndGetToken(String username, String password) throws Exception {
         String body = objectMapper.writeValueAsString(new LoginRequest(username, password));
 
@@ -0,0 +1,109 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.users.JdbcUserDetailsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.jwt.statelessPrincipal=true",
+        // zaseban H2 da schema.sql ne puca na tablici iz drugog test konteksta
+        "spring.datasource.url=jdbc:h2:mem:stateless_principal;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+class StatelessPrincipalTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private JdbcUserDetailsService userDetailsService;
+
+    @Test
+    void authenticationIsBuiltFromClaimsOnly() throws Exception {
+        String token = loginAndGetToken("admin", "admin123");
+        // login smije čitati korisnika, autentificirani GET-ovi ne
+        clearInvocations(userDetailsService);
+
+        mockMvc.perform(get("/api/admin/secret")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        String notes = mockMvc.perform(get("/api/notes")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertTrue(notes.contains("admin"), "principal name must come from the token subject");
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void authoritiesComeFromTheTokenUntilItExpires() throws Exception {
+        String token = loginAndGetToken("admin", "admin123");
+        clearInvocations(userDetailsService);
+
+        int removed = jdbcTemplate.update("""
+                DELETE FROM app_user_roles
+                WHERE user_id = (SELECT id FROM app_users WHERE username = 'admin')
+                  AND role_id = (SELECT id FROM app_roles WHERE name = 'ADMIN')
+                """);
+        try {
+            assertEquals(1, removed, "admin must have had the ADMIN role");
+
+            // uloga je maknuta u bazi, ali token je i dalje valjan i nosi ROLE_ADMIN
+            mockMvc.perform(get("/api/admin/secret")
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+            verify(userDetailsService, never()).loadUserByUsername(anyString());
+        } finally {
+            jdbcTemplate.update("""
+                    INSERT INTO app_user_roles (user_id, role_id)
+                    SELECT u.id, r.id FROM app_users u JOIN app_roles r
+                      ON u.username = 'admin' AND r.name = 'ADMIN'
+                    """);
+        }
+    }
+
+    private String loginAndGetToken(String username, String password) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("username", username, "password", password));
+
+        String response = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode node = objectMapper.readTree(response);
+        return node.get("token").asText();
+    }
+}
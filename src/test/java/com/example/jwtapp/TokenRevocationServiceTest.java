@@ -0,0 +1,82 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.jwt.TokenRevocationService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationServiceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T10:00:00Z"));
+    private final TokenRevocationService revocations = new TokenRevocationService(1024, clock);
+
+    @Test
+    void revokingAgainWithEarlierExpiryKeepsTheLaterOne() {
+        Instant start = clock.instant();
+        revocations.revoke("jti-1", start.plus(Duration.ofMinutes(10)));
+        revocations.revoke("jti-1", start.plusSeconds(30));
+
+        // bucket od 30 s je prošao i pometen - token živi još 8 minuta
+        clock.advance(Duration.ofMinutes(2));
+        assertTrue(revocations.isRevoked("jti-1"));
+        assertEquals(1, revocations.size());
+
+        clock.advance(Duration.ofMinutes(10));
+        assertFalse(revocations.isRevoked("jti-1"));
+        assertEquals(0, revocations.size());
+    }
+
+    @Test
+    void revokingAgainWithLaterExpiryExtendsIt() {
+        Instant start = clock.instant();
+        revocations.revoke("jti-2", start.plusSeconds(30));
+        revocations.revoke("jti-2", start.plus(Duration.ofMinutes(10)));
+
+        clock.advance(Duration.ofMinutes(2));
+        assertTrue(revocations.isRevoked("jti-2"));
+    }
+
+    @Test
+    void lookupsSweepWithoutFurtherRevocations() {
+        revocations.revoke("jti-3", clock.instant().plusSeconds(30));
+        assertEquals(1, revocations.size());
+
+        clock.advance(Duration.ofMinutes(3));
+        revocations.isRevoked("drugi");
+        assertEquals(0, revocations.size());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.jwtapp;
+
+import com.example.jwtapp.users.JdbcUserDetailsService;
+import com.example.jwtapp.users.UserImporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        // zaseban H2 - import dodaje korisnike
+        "spring.datasource.url=jdbc:h2:mem:user_importer;DB_CLOSE_DELAY=-1",
+        "app.users.import.batchSize=2"
+})
+class UserImporterTest {
+
+    @Autowired
+    private UserImporter importer;
+
+    @Autowired
+    private JdbcUserDetailsService users;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void csvImportHashesPlaintextAndKeepsPrecomputedHashes(@TempDir Path dir) throws Exception {
+        String precomputed = new BCryptPasswordEncoder(4).encode("secret-b");
+        Path csv = dir.resolve("users.csv");
+        Files.writeString(csv, String.join("\n",
+                "username,password,roles",
+                "ana,secret-a,USER",
+                "boris," + precomputed + ",USER|AUDITOR",
+                "cvita,\"with,comma \"\"quoted\"\"\",ADMIN|USER",
+                "dino,secret-d"));
+
+        UserImporter.ImportResult result = importer.importFrom(new FileSystemResource(csv));
+
+        assertEquals(4, result.users());
+        assertEquals(3, result.hashed());
+        assertTrue(passwordEncoder.matches("secret-a", users.loadUserByUsername("ana").getPassword()));
+        assertEquals(precomputed, users.loadUserByUsername("boris").getPassword());
+        assertEquals(List.of("ROLE_AUDITOR", "ROLE_USER"), roles(users.loadUserByUsername("boris")));
+        assertTrue(passwordEncoder.matches("with,comma \"quoted\"", users.loadUserByUsername("cvita").getPassword()));
+        assertEquals(List.of("ROLE_USER"), roles(users.loadUserByUsername("dino")));
+    }
+
+    @Test
+    void csvPasswordWithUnquotedCommaIsRejected(@TempDir Path dir) throws Exception {
+        Path csv = dir.resolve("users.csv");
+        // bez navodnika se ne zna gdje završava lozinka, a gdje počinju role
+        Files.writeString(csv, "eva,pass,word,USER\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> importer.importFrom(new FileSystemResource(csv)));
+        assertTrue(e.getMessage().contains("line 1"));
+
+        // bez stupca roles treće polje ne može biti rola
+        Path noRoles = dir.resolve("no-roles.csv");
+        Files.writeString(noRoles, "username,password\nfran,pass,word\n");
+        e = assertThrows(IllegalArgumentException.class,
+                () -> importer.importFrom(new FileSystemResource(noRoles)));
+        assertTrue(e.getMessage().contains("line 2"));
+
+        assertThrows(Exception.class, () -> users.loadUserByUsername("eva"));
+        assertThrows(Exception.class, () -> users.loadUserByUsername("fran"));
+    }
+
+    @Test
+    void jsonlImportUpdatesExistingUser(@TempDir Path dir) throws Exception {
+        Path jsonl = dir.resolve("users.jsonl");
+        Files.writeString(jsonl, """
+                {"username":"student","password":"new-pass","roles":["USER","TEACHER"]}
+                """);
+
+        users.loadUserByUsername("student"); // u cacheu prije importa
+        importer.importFrom(new FileSystemResource(jsonl));
+
+        UserDetails student = users.loadUserByUsername("student");
+        assertTrue(passwordEncoder.matches("new-pass", student.getPassword()));
+        assertEquals(List.of("ROLE_TEACHER", "ROLE_USER"), roles(student));
+    }
+
+    private static List<String> roles(UserDetails user) {
+        return user.getAuthorities().stream().map(GrantedAuthority::getAuthority).sorted().toList();
+    }
+}